@@ -0,0 +1,5 @@
+-- One-off migration for databases created before compressed submission storage.
+-- The old submissions.code column was NOT NULL; new rows keep their code in code_blobs and leave
+-- it empty. Hibernate's ddl-auto=update never relaxes constraints, so run this once, before the
+-- upgraded backend starts. Fresh databases already get a nullable column and do not need it.
+ALTER TABLE submissions ALTER COLUMN code DROP NOT NULL;
@@ -2,6 +2,8 @@ package com.edi.backend.controller;
 
 import com.edi.backend.dto.ChallengeRequest;
 import com.edi.backend.dto.ChallengeResponse;
+import com.edi.backend.dto.ChallengeSummaryResponse;
+import com.edi.backend.dto.CursorPageResponse;
 import com.edi.backend.dto.PageResponse;
 import com.edi.backend.service.ChallengeService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -20,11 +22,14 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Challenges", description = "Challenge management endpoints")
 public class ChallengeController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ChallengeService challengeService;
 
     @GetMapping
-    @Operation(summary = "Get all challenges", description = "Returns paginated list of all challenges")
-    public ResponseEntity<PageResponse<ChallengeResponse>> getAllChallenges(
+    @Operation(summary = "Get all challenges", description = "Returns a paginated list of challenge summaries; "
+            + "the full challenge, including starter code and sample tests, comes from GET /api/challenges/{id}")
+    public ResponseEntity<PageResponse<ChallengeSummaryResponse>> getAllChallenges(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "100") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy
@@ -32,6 +37,18 @@ public class ChallengeController {
         return ResponseEntity.ok(challengeService.getAllChallenges(page, size, sortBy));
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "Get challenges by cursor", description = "Returns challenge summaries after the given cursor, "
+            + "sorted by createdAt (default) or title descending; pass nextCursor back to get the following page")
+    public ResponseEntity<CursorPageResponse<ChallengeSummaryResponse>> scrollChallenges(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy
+    ) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(challengeService.scrollChallenges(cursor, pageSize, sortBy));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get challenge by ID", description = "Returns a single challenge by its ID")
     public ResponseEntity<ChallengeResponse> getChallengeById(@PathVariable Long id) {
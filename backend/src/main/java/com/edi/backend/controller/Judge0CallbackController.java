@@ -0,0 +1,34 @@
+package com.edi.backend.controller;
+
+import com.edi.backend.dto.Judge0ResultResponse;
+import com.edi.backend.exception.AuthorizationException;
+import com.edi.backend.service.Judge0CallbackExecutor;
+import io.swagger.v3.oas.annotations.Hidden;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/internal/judge0")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "judge0.mode", havingValue = "callback")
+@Hidden
+public class Judge0CallbackController {
+
+    private final Judge0CallbackExecutor judge0CallbackExecutor;
+
+    @PutMapping("/callback/{run}/{signature}")
+    public ResponseEntity<Void> handleCallback(
+            @PathVariable String run,
+            @PathVariable String signature,
+            @RequestBody Judge0ResultResponse result
+    ) {
+        if (!judge0CallbackExecutor.isValidSignature(run, signature)) {
+            throw new AuthorizationException("Invalid Judge0 callback signature");
+        }
+
+        judge0CallbackExecutor.handleCallback(run, result);
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,40 @@
+package com.edi.backend.controller;
+
+import com.edi.backend.dto.LeaderboardResponse;
+import com.edi.backend.service.LeaderboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@RequiredArgsConstructor
+@Tag(name = "Leaderboard", description = "Global XP leaderboard")
+public class LeaderboardController {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final LeaderboardService leaderboardService;
+
+    @GetMapping
+    @Operation(summary = "Get the leaderboard", description = "Returns the users with the most XP and, when authenticated, your own rank. "
+            + "Users with equal XP share a rank.")
+    public ResponseEntity<LeaderboardResponse> getLeaderboard(@RequestParam(defaultValue = "10") int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        LeaderboardResponse.LeaderboardResponseBuilder response = LeaderboardResponse.builder()
+                .top(leaderboardService.top(size))
+                .totalUsers(leaderboardService.size());
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            leaderboardService.standingOf(authentication.getName()).ifPresent(response::me);
+        }
+        return ResponseEntity.ok(response.build());
+    }
+}
@@ -1,20 +1,30 @@
 package com.edi.backend.controller;
 
+import com.edi.backend.dto.CursorPageResponse;
+import com.edi.backend.dto.SampleRunResponse;
 import com.edi.backend.dto.SubmissionRequest;
 import com.edi.backend.dto.SubmissionResponse;
+import com.edi.backend.dto.SubmissionSummaryResponse;
+import com.edi.backend.entity.SubmissionStatus;
 import com.edi.backend.entity.User;
 import com.edi.backend.exception.UserNotFoundException;
 import com.edi.backend.repository.UserRepository;
 import com.edi.backend.service.CodeExecutionService;
+import com.edi.backend.service.SubmissionEventService;
+import com.edi.backend.service.SubmissionQueueService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/submissions")
@@ -22,17 +32,29 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Submissions", description = "Code submission and execution endpoints")
 public class SubmissionController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final CodeExecutionService codeExecutionService;
+    private final SubmissionQueueService submissionQueueService;
+    private final SubmissionEventService submissionEventService;
     private final UserRepository userRepository;
 
     @PostMapping
     @SecurityRequirement(name = "bearerAuth")
-    @Operation(summary = "Submit code for evaluation", description = "Submit code solution for a challenge (requires authentication)")
+    @Operation(summary = "Submit code for evaluation", description = "Submit code solution for a challenge (requires authentication). "
+            + "When asynchronous mode is enabled, returns 202 with a PENDING submission that can be polled by id.")
     public ResponseEntity<SubmissionResponse> submitCode(@Valid @RequestBody SubmissionRequest request) {
-        // Get authenticated user
-        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        User user = getAuthenticatedUser();
+
+        if (submissionQueueService.isEnabled()) {
+            SubmissionResponse pending = submissionQueueService.enqueue(
+                    user.getId(),
+                    user.getRole(),
+                    request.getChallengeId(),
+                    request.getCode()
+            );
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(pending);
+        }
 
         // Evaluate submission
         SubmissionResponse response = codeExecutionService.evaluateSubmission(
@@ -43,4 +65,53 @@ public class SubmissionController {
 
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
+
+    @PostMapping("/samples")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Run sample tests", description = "Runs code against the challenge's sample tests without creating a submission "
+            + "(requires authentication). Sample runs queue behind graded submissions.")
+    public CompletableFuture<SampleRunResponse> runSamples(@Valid @RequestBody SubmissionRequest request) {
+        User user = getAuthenticatedUser();
+        return submissionQueueService.runSamples(user.getId(), user.getRole(), request.getChallengeId(), request.getCode());
+    }
+
+    @GetMapping
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "List your submissions", description = "Returns your submissions newest first, without code or output, "
+            + "optionally filtered by challenge and status. Pass nextCursor as cursor for the next page (requires authentication)")
+    public ResponseEntity<CursorPageResponse<SubmissionSummaryResponse>> listSubmissions(
+            @RequestParam(required = false) Long challengeId,
+            @RequestParam(required = false) SubmissionStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        User user = getAuthenticatedUser();
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(codeExecutionService.listSubmissions(user.getId(), challengeId, status, cursor, pageSize));
+    }
+
+    @GetMapping("/{id}")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Get submission by ID", description = "Returns the current state of one of your submissions, for polling PENDING results (requires authentication)")
+    public ResponseEntity<SubmissionResponse> getSubmission(@PathVariable Long id) {
+        User user = getAuthenticatedUser();
+        return ResponseEntity.ok(codeExecutionService.getSubmission(id, user.getId()));
+    }
+
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Stream submission progress", description = "Server-Sent Events for one of your submissions: queued, running, "
+            + "then one test event per PASS/FAIL and the final verdict, both sent once the run completes. Send Last-Event-ID to resume after a reconnect (requires authentication)")
+    public SseEmitter streamSubmissionEvents(@PathVariable Long id,
+                                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        User user = getAuthenticatedUser();
+        SubmissionResponse current = codeExecutionService.getSubmission(id, user.getId());
+        return submissionEventService.subscribe(current, lastEventId);
+    }
+
+    private User getAuthenticatedUser() {
+        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+        return userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+    }
 }
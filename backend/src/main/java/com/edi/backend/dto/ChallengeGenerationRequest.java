@@ -16,4 +16,5 @@ public class ChallengeGenerationRequest {
     private String hiddenTests;
     private String sampleTests;
     private List<String> tags;
+    private List<TestCaseDefinition> testCases;
 }
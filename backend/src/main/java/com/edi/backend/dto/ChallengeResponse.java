@@ -22,4 +22,5 @@ public class ChallengeResponse {
     private String sampleTests;
     private List<String> tags;
     private LocalDateTime createdAt;
+    private ChallengeStatsResponse stats;
 }
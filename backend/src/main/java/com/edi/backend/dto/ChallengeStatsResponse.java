@@ -0,0 +1,25 @@
+package com.edi.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChallengeStatsResponse {
+    private long attempts;
+    private long accepted;
+    private long uniqueSolvers;
+    private Double acceptanceRate;
+    // Upper bound of the bucket holding the median accepted run; null with no accepted runs or when
+    // the median falls in the open-ended last bucket
+    private Integer medianRuntimeMs;
+    private Integer medianMemoryKb;
+    private List<HistogramBucket> runtimeHistogram;
+    private List<HistogramBucket> memoryHistogram;
+}
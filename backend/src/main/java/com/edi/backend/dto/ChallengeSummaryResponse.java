@@ -0,0 +1,24 @@
+package com.edi.backend.dto;
+
+import com.edi.backend.entity.Difficulty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChallengeSummaryResponse {
+    private Long id;
+    private String title;
+    // First characters of the description, enough for a card; the full text is on GET /{id}
+    private String descriptionPreview;
+    private Difficulty difficulty;
+    private List<String> tags;
+    private LocalDateTime createdAt;
+}
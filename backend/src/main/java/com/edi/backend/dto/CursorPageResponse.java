@@ -0,0 +1,24 @@
+package com.edi.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private int size;
+    // Pass as cursor to get the next page; null on the last page
+    private String nextCursor;
+    private boolean hasNext;
+    // Total across all pages, where the list keeps one without counting per page
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+}
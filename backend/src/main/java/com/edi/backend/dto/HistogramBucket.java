@@ -0,0 +1,16 @@
+package com.edi.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistogramBucket {
+    // Inclusive upper bound; null for the last, open-ended bucket
+    private Integer upTo;
+    private long count;
+}
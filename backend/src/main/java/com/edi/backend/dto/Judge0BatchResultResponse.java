@@ -0,0 +1,10 @@
+package com.edi.backend.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class Judge0BatchResultResponse {
+    private List<Judge0ResultResponse> submissions;
+}
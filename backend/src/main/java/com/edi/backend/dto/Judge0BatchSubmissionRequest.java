@@ -0,0 +1,14 @@
+package com.edi.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Judge0BatchSubmissionRequest {
+    private List<Judge0SubmissionRequest> submissions;
+}
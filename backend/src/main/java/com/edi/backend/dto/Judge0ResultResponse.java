@@ -5,6 +5,7 @@ import lombok.Data;
 
 @Data
 public class Judge0ResultResponse {
+    private String token;
     private Judge0Status status;
     private String stdout;
     private String stderr;
@@ -1,5 +1,6 @@
 package com.edi.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -22,4 +23,8 @@ public class Judge0SubmissionRequest {
 
     @JsonProperty("expected_output")
     private String expectedOutput;
+
+    @JsonProperty("callback_url")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String callbackUrl;
 }
@@ -0,0 +1,18 @@
+package com.edi.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryResponse {
+    // 1 + number of users with more XP; users with equal XP share a rank
+    private long rank;
+    private Long userId;
+    private String username;
+    private Integer xp;
+}
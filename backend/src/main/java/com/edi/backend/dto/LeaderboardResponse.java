@@ -0,0 +1,21 @@
+package com.edi.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LeaderboardResponse {
+    private List<LeaderboardEntryResponse> top;
+    // The caller's own standing, when authenticated
+    private LeaderboardEntryResponse me;
+    private int totalUsers;
+}
@@ -0,0 +1,25 @@
+package com.edi.backend.dto;
+
+import com.edi.backend.entity.SubmissionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SampleRunResponse {
+    private Long challengeId;
+    private SubmissionStatus status;
+    private String stdout;
+    private String stderr;
+    private Integer executionTime;
+    private Integer memory;
+    private Integer passedTests;
+    private Integer totalTests;
+    private List<TestResultResponse> testResults;
+}
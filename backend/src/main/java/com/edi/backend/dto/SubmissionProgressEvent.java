@@ -0,0 +1,22 @@
+package com.edi.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SubmissionProgressEvent {
+    private Long submissionId;
+    // queued, running, test, verdict or error; also the SSE event name
+    private String type;
+    private TestResultResponse test;
+    private SubmissionResponse verdict;
+    // Set on error events, which end a stream whose submission could not be evaluated
+    private String message;
+}
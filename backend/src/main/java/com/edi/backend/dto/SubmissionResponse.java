@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -21,5 +22,9 @@ public class SubmissionResponse {
     private String stderr;
     private Integer executionTime;
     private Integer memory;
+    private Integer passedTests;
+    private Integer totalTests;
+    private Integer score;
+    private List<TestResultResponse> testResults;
     private LocalDateTime createdAt;
 }
@@ -0,0 +1,23 @@
+package com.edi.backend.dto;
+
+import com.edi.backend.entity.SubmissionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmissionSummaryResponse {
+    private Long id;
+    private Long challengeId;
+    private SubmissionStatus status;
+    private Integer score;
+    private Integer executionTime;
+    private Integer memory;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,19 @@
+package com.edi.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TestCaseDefinition {
+    private String name;
+    private String input;
+    private String expected;
+    private Integer weight;
+}
@@ -0,0 +1,17 @@
+package com.edi.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TestResultResponse {
+    private String name;
+    private boolean passed;
+    private String message;
+    private Integer weight;
+}
@@ -6,7 +6,14 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "challenges")
+@Table(
+    name = "challenges",
+    indexes = {
+        // Challenge list: keyset pagination by either sort column, then id
+        @Index(name = "idx_challenges_created", columnList = "createdAt, id"),
+        @Index(name = "idx_challenges_title", columnList = "title, id")
+    }
+)
 @Getter
 @Setter
 @ToString(exclude = {"description", "starterCode", "hiddenTests", "sampleTests"})
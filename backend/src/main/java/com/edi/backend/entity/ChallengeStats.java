@@ -0,0 +1,41 @@
+package com.edi.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "challenge_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChallengeStats {
+    @Id
+    private Long challengeId;
+
+    @Column(nullable = false)
+    private Long attempts;
+
+    @Column(nullable = false)
+    private Long accepted;
+
+    @Column(nullable = false)
+    private Long uniqueSolvers;
+
+    // Comma-separated bucket counts of accepted runs, see ChallengeStatsService for the bounds
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String runtimeHistogram;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String memoryHistogram;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,41 @@
+package com.edi.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(
+    name = "challenge_test_cases",
+    indexes = @Index(name = "idx_challenge_test_cases_challenge", columnList = "challengeId, position")
+)
+@Getter
+@Setter
+@ToString(exclude = {"input", "expected"})
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChallengeTestCase {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long challengeId;
+
+    @Column(nullable = false)
+    private Integer position;
+
+    private String name;
+
+    // JavaScript expression evaluated against the user's code, e.g. "add(2, 3)"
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String input;
+
+    // JavaScript expression for the expected value, compared structurally with the input's result
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String expected;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer weight = 1;
+}
@@ -0,0 +1,37 @@
+package com.edi.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "code_blobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CodeBlob {
+    // SHA-256 of the code, hex encoded
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(nullable = false, columnDefinition = "bytea")
+    private String content;
+
+    @Column(nullable = false)
+    private Integer codeLength;
+
+    // Number of submissions pointing at this blob
+    @Column(nullable = false)
+    private Long refCount;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
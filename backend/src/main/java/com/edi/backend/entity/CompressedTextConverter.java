@@ -0,0 +1,103 @@
+package com.edi.backend.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores text in a binary column whose first byte names the codec: {@link #PLAIN} for UTF-8 as is,
+ * {@link #DEFLATE} for zlib deflate at BEST_SPEED. Short values and values that do not shrink are
+ * kept plain, so decoding never costs more than the encoding saved. Bytes that start with neither
+ * marker were written before the markers existed and are read as plain UTF-8; text never starts
+ * with the control characters 0x00 or 0x01.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    public static final byte PLAIN = 0;
+    public static final byte DEFLATE = 1;
+
+    private static final int MIN_COMPRESSED_BYTES = 256;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        return text == null ? null : encode(text);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] data) {
+        return data == null ? null : decode(data);
+    }
+
+    public static byte[] encode(String text) {
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        if (raw.length >= MIN_COMPRESSED_BYTES) {
+            byte[] compressed = deflate(raw);
+            if (compressed.length < raw.length) {
+                return withMarker(DEFLATE, compressed);
+            }
+        }
+        return withMarker(PLAIN, raw);
+    }
+
+    public static String decode(byte[] data) {
+        if (data.length == 0) {
+            return "";
+        }
+        return switch (data[0]) {
+            case PLAIN -> new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
+            case DEFLATE -> new String(inflate(Arrays.copyOfRange(data, 1, data.length)), StandardCharsets.UTF_8);
+            default -> new String(data, StandardCharsets.UTF_8);
+        };
+    }
+
+    private static byte[] withMarker(byte marker, byte[] payload) {
+        byte[] data = new byte[payload.length + 1];
+        data[0] = marker;
+        System.arraycopy(payload, 0, data, 1, payload.length);
+        return data;
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed text");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed text", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.edi.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+    name = "execution_result_cache",
+    indexes = @Index(name = "idx_execution_result_cache_challenge", columnList = "challengeId")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExecutionResultCacheEntry {
+    @Id
+    @Column(length = 64)
+    private String codeHash;
+
+    @Column(nullable = false)
+    private Long challengeId;
+
+    @Column(nullable = false)
+    private Integer statusId;
+
+    @Column(columnDefinition = "TEXT")
+    private String stdout;
+
+    @Column(columnDefinition = "TEXT")
+    private String stderr;
+
+    @Column(columnDefinition = "TEXT")
+    private String compileOutput;
+
+    private String time;
+
+    private Integer memory;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -3,9 +3,18 @@ package com.edi.backend.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "submissions")
+@Table(
+    name = "submissions",
+    indexes = {
+        // Submission history: a user's submissions newest first, keyset-paginated
+        @Index(name = "idx_submissions_user_created", columnList = "userId, createdAt, id"),
+        @Index(name = "idx_submissions_user_challenge_status", columnList = "userId, challengeId, status")
+    }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,27 +31,92 @@ public class Submission {
     @Column(nullable = false)
     private Long challengeId;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
+    // Submitted code lives in code_blobs, shared by every submission with the same source
+    @Column(length = 64)
+    private String codeHash;
+
+    // Inline code of rows stored before code blobs; read it through CodeBlobService#codeOf
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "code_data", columnDefinition = "bytea")
     private String code;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private SubmissionStatus status;
 
-    @Column(columnDefinition = "TEXT")
+    // Output is stored compressed; see CompressedTextConverter
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "stdout_data", columnDefinition = "bytea")
     private String stdout;
 
-    @Column(columnDefinition = "TEXT")
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "stderr_data", columnDefinition = "bytea")
     private String stderr;
 
+    // Length of the output before it was capped for storage
+    private Integer stdoutLength;
+
+    private Integer stderrLength;
+
+    // Uncompressed columns from before compressed storage, moved to the *_data columns on load
+    @Column(name = "code", columnDefinition = "TEXT")
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String legacyCode;
+
+    @Column(name = "stdout", columnDefinition = "TEXT")
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String legacyStdout;
+
+    @Column(name = "stderr", columnDefinition = "TEXT")
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String legacyStderr;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean legacyContent;
+
     private Integer executionTime;
 
     private Integer memory;
 
+    // Weighted share of passed test cases, 0-100
+    private Integer score;
+
+    @ElementCollection
+    @CollectionTable(name = "submission_test_results", joinColumns = @JoinColumn(name = "submission_id"))
+    @OrderColumn(name = "position")
+    @Builder.Default
+    private List<SubmissionTestResult> testResults = new ArrayList<>();
+
     private LocalDateTime createdAt;
 
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
     }
+
+    /**
+     * Serves rows written before compressed storage from their old columns. The next save writes
+     * the content compressed and clears the old columns.
+     */
+    @PostLoad
+    protected void onLoad() {
+        if (legacyCode != null || legacyStdout != null || legacyStderr != null) {
+            legacyContent = true;
+            code = code != null ? code : legacyCode;
+            stdout = stdout != null ? stdout : legacyStdout;
+            stderr = stderr != null ? stderr : legacyStderr;
+            legacyCode = null;
+            legacyStdout = null;
+            legacyStderr = null;
+        }
+    }
+
+    public boolean hasLegacyContent() {
+        return legacyContent;
+    }
 }
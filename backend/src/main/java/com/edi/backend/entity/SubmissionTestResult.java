@@ -0,0 +1,24 @@
+package com.edi.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SubmissionTestResult {
+    private String name;
+
+    @Column(nullable = false)
+    private boolean passed;
+
+    @Column(columnDefinition = "TEXT")
+    private String message;
+
+    @Column(nullable = false)
+    private Integer weight;
+}
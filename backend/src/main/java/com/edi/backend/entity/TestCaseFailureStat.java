@@ -0,0 +1,29 @@
+package com.edi.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(
+    name = "test_case_failure_stats",
+    uniqueConstraints = @UniqueConstraint(name = "uk_test_case_failure_stats_case", columnNames = {"challengeId", "caseId"})
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TestCaseFailureStat {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long challengeId;
+
+    @Column(nullable = false, length = 16)
+    private String caseId;
+
+    @Column(nullable = false)
+    private Long failures;
+}
@@ -0,0 +1,36 @@
+package com.edi.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+    name = "xp_ledger",
+    uniqueConstraints = @UniqueConstraint(name = "uk_xp_ledger_user_challenge", columnNames = {"userId", "challengeId"})
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class XpLedgerEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long challengeId;
+
+    // The accepted submission that solved the challenge first
+    private Long submissionId;
+
+    @Column(nullable = false)
+    private Integer xp;
+
+    @Column(nullable = false)
+    private LocalDateTime awardedAt;
+}
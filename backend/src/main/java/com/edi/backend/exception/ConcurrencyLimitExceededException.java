@@ -0,0 +1,14 @@
+package com.edi.backend.exception;
+
+public class ConcurrencyLimitExceededException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ConcurrencyLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
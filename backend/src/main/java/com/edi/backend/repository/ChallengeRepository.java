@@ -1,14 +1,72 @@
 package com.edi.backend.repository;
 
 import com.edi.backend.entity.Challenge;
+import com.edi.backend.entity.Difficulty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ChallengeRepository extends JpaRepository<Challenge, Long> {
     @Query("SELECT c.title FROM Challenge c")
     List<String> findAllTitles();
+
+    String SUMMARY_COLUMNS = "SELECT c.id AS id, c.title AS title, SUBSTRING(c.description, 1, "
+            + ChallengeSummary.DESCRIPTION_PREVIEW_LENGTH + ") AS descriptionPreview, "
+            + "c.difficulty AS difficulty, c.createdAt AS createdAt FROM Challenge c";
+
+    /**
+     * List columns only: no test blobs, no starter code and a description preview instead of the
+     * full text. Tags are loaded separately for the whole page, see {@link #findTagsByChallengeIds}.
+     * A slice, so no COUNT(*) is run; the total comes from ChallengeCountCache.
+     */
+    @Query(SUMMARY_COLUMNS)
+    Slice<ChallengeSummary> findSummaries(Pageable pageable);
+
+    /**
+     * First page of summaries newest first. Each sort has a first-page query and a query for the
+     * page after a cursor, which compares row values so it always seeks on the sort's index.
+     */
+    @Query(SUMMARY_COLUMNS + " ORDER BY c.createdAt DESC, c.id DESC")
+    List<ChallengeSummary> findSummariesByCreatedAt(Pageable pageable);
+
+    @Query(SUMMARY_COLUMNS + " WHERE (c.createdAt, c.id) < (:cursorCreatedAt, :cursorId) "
+            + "ORDER BY c.createdAt DESC, c.id DESC")
+    List<ChallengeSummary> findSummariesByCreatedAtAfter(@Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                         @Param("cursorId") Long cursorId,
+                                                         Pageable pageable);
+
+    @Query(SUMMARY_COLUMNS + " ORDER BY c.title DESC, c.id DESC")
+    List<ChallengeSummary> findSummariesByTitle(Pageable pageable);
+
+    @Query(SUMMARY_COLUMNS + " WHERE (c.title, c.id) < (:cursorTitle, :cursorId) "
+            + "ORDER BY c.title DESC, c.id DESC")
+    List<ChallengeSummary> findSummariesByTitleAfter(@Param("cursorTitle") String cursorTitle,
+                                                     @Param("cursorId") Long cursorId,
+                                                     Pageable pageable);
+
+    @Query("SELECT c.id AS challengeId, t AS tag FROM Challenge c JOIN c.tags t WHERE c.id IN :challengeIds")
+    List<ChallengeTag> findTagsByChallengeIds(@Param("challengeIds") Collection<Long> challengeIds);
+
+    interface ChallengeSummary {
+        int DESCRIPTION_PREVIEW_LENGTH = 200;
+
+        Long getId();
+        String getTitle();
+        String getDescriptionPreview();
+        Difficulty getDifficulty();
+        LocalDateTime getCreatedAt();
+    }
+
+    interface ChallengeTag {
+        Long getChallengeId();
+        String getTag();
+    }
 }
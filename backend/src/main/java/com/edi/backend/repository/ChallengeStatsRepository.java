@@ -0,0 +1,9 @@
+package com.edi.backend.repository;
+
+import com.edi.backend.entity.ChallengeStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChallengeStatsRepository extends JpaRepository<ChallengeStats, Long> {
+}
@@ -0,0 +1,21 @@
+package com.edi.backend.repository;
+
+import com.edi.backend.entity.ChallengeTestCase;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface ChallengeTestCaseRepository extends JpaRepository<ChallengeTestCase, Long> {
+    List<ChallengeTestCase> findByChallengeIdOrderByPositionAsc(Long challengeId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ChallengeTestCase t WHERE t.challengeId = :challengeId")
+    int deleteByChallengeId(@Param("challengeId") Long challengeId);
+}
@@ -0,0 +1,36 @@
+package com.edi.backend.repository;
+
+import com.edi.backend.entity.CodeBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface CodeBlobRepository extends JpaRepository<CodeBlob, String> {
+    @Modifying
+    @Transactional
+    @Query("UPDATE CodeBlob b SET b.refCount = b.refCount + 1 WHERE b.hash = :hash")
+    int incrementRefCount(@Param("hash") String hash);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO code_blobs (hash, content, code_length, ref_count, created_at) "
+            + "VALUES (:hash, :content, :codeLength, 1, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("hash") String hash, @Param("content") byte[] content, @Param("codeLength") int codeLength);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE CodeBlob b SET b.refCount = b.refCount - 1 WHERE b.hash = :hash")
+    int decrementRefCount(@Param("hash") String hash);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CodeBlob b WHERE b.hash = :hash AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+
+    @Query("SELECT COALESCE(SUM(b.refCount), 0) FROM CodeBlob b")
+    long sumRefCounts();
+}
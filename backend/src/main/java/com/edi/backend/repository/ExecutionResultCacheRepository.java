@@ -0,0 +1,24 @@
+package com.edi.backend.repository;
+
+import com.edi.backend.entity.ExecutionResultCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ExecutionResultCacheRepository extends JpaRepository<ExecutionResultCacheEntry, String> {
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ExecutionResultCacheEntry e WHERE e.challengeId = :challengeId")
+    int deleteByChallengeId(@Param("challengeId") Long challengeId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ExecutionResultCacheEntry e WHERE e.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,12 +1,15 @@
 package com.edi.backend.repository;
 
+import com.edi.backend.entity.Role;
 import com.edi.backend.entity.Submission;
 import com.edi.backend.entity.SubmissionStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -15,4 +18,61 @@ public interface SubmissionRepository extends JpaRepository<Submission, Long> {
 
     @Query("SELECT DISTINCT s.challengeId FROM Submission s WHERE s.userId = :userId AND s.status = :status")
     List<Long> findChallengeIdsByUserIdAndStatus(@Param("userId") Long userId, @Param("status") SubmissionStatus status);
+
+    /**
+     * Submissions in the given status with their owner and the owner's role, oldest first.
+     */
+    @Query("SELECT s.id AS id, s.userId AS userId, u.role AS role FROM Submission s, User u "
+            + "WHERE u.id = s.userId AND s.status = :status ORDER BY s.id")
+    List<QueuedSubmission> findQueuedByStatus(@Param("status") SubmissionStatus status);
+
+    @Query("SELECT s.id FROM Submission s "
+            + "WHERE s.legacyCode IS NOT NULL OR s.legacyStdout IS NOT NULL OR s.legacyStderr IS NOT NULL "
+            + "OR (s.codeHash IS NULL AND s.code IS NOT NULL) ORDER BY s.id")
+    List<Long> findIdsToMigrate(Pageable pageable);
+
+    String HISTORY_COLUMNS = "SELECT s.id AS id, s.challengeId AS challengeId, s.status AS status, s.score AS score, "
+            + "s.executionTime AS executionTime, s.memory AS memory, s.createdAt AS createdAt "
+            + "FROM Submission s WHERE s.userId = :userId "
+            + "AND (:challengeId IS NULL OR s.challengeId = :challengeId) "
+            + "AND (:status IS NULL OR s.status = :status) ";
+
+    /**
+     * First page of a user's submissions, newest first. Reads no code, output or test results.
+     */
+    @Query(HISTORY_COLUMNS + "ORDER BY s.createdAt DESC, s.id DESC")
+    List<SubmissionSummary> findHistory(@Param("userId") Long userId,
+                                        @Param("challengeId") Long challengeId,
+                                        @Param("status") SubmissionStatus status,
+                                        Pageable pageable);
+
+    /**
+     * The page after the (createdAt, id) cursor. A separate query with a row-value comparison, so the
+     * cursor always seeks on idx_submissions_user_created instead of hiding behind an
+     * "IS NULL OR" that a generic plan cannot use the index for.
+     */
+    @Query(HISTORY_COLUMNS + "AND (s.createdAt, s.id) < (:cursorCreatedAt, :cursorId) "
+            + "ORDER BY s.createdAt DESC, s.id DESC")
+    List<SubmissionSummary> findHistoryAfter(@Param("userId") Long userId,
+                                             @Param("challengeId") Long challengeId,
+                                             @Param("status") SubmissionStatus status,
+                                             @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                             @Param("cursorId") Long cursorId,
+                                             Pageable pageable);
+
+    interface QueuedSubmission {
+        Long getId();
+        Long getUserId();
+        Role getRole();
+    }
+
+    interface SubmissionSummary {
+        Long getId();
+        Long getChallengeId();
+        SubmissionStatus getStatus();
+        Integer getScore();
+        Integer getExecutionTime();
+        Integer getMemory();
+        LocalDateTime getCreatedAt();
+    }
 }
@@ -0,0 +1,26 @@
+package com.edi.backend.repository;
+
+import com.edi.backend.entity.TestCaseFailureStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface TestCaseFailureStatRepository extends JpaRepository<TestCaseFailureStat, Long> {
+    List<TestCaseFailureStat> findByChallengeId(Long challengeId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE TestCaseFailureStat s SET s.failures = s.failures + :delta WHERE s.challengeId = :challengeId AND s.caseId = :caseId")
+    int incrementFailures(@Param("challengeId") Long challengeId, @Param("caseId") String caseId, @Param("delta") long delta);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TestCaseFailureStat s WHERE s.challengeId = :challengeId")
+    int deleteByChallengeId(@Param("challengeId") Long challengeId);
+}
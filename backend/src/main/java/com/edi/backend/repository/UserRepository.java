@@ -2,8 +2,13 @@ package com.edi.backend.repository;
 
 import com.edi.backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +17,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     boolean existsByEmail(String email);
     boolean existsByUsername(String username);
+
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.xp AS xp FROM User u")
+    List<UserStanding> findAllStandings();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.xp = u.xp + :xp WHERE u.id = :userId")
+    int addXp(@Param("userId") Long userId, @Param("xp") int xp);
+
+    interface UserStanding {
+        Long getId();
+        String getUsername();
+        String getEmail();
+        Integer getXp();
+    }
 }
@@ -0,0 +1,28 @@
+package com.edi.backend.repository;
+
+import com.edi.backend.entity.XpLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface XpLedgerRepository extends JpaRepository<XpLedgerEntry, Long> {
+
+    /**
+     * Records a first solve; returns 0 when the user already solved the challenge.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO xp_ledger (user_id, challenge_id, submission_id, xp, awarded_at) "
+            + "VALUES (:userId, :challengeId, :submissionId, :xp, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("challengeId") Long challengeId,
+                       @Param("submissionId") Long submissionId, @Param("xp") int xp);
+
+    @Query("SELECT e.challengeId FROM XpLedgerEntry e WHERE e.userId = :userId")
+    List<Long> findChallengeIdsByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,112 @@
+package com.edi.backend.security;
+
+import com.edi.backend.service.TokenBucketRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Applies {@link TokenBucketRateLimiter} to POST /api/submissions, POST /api/submissions/samples and
+ * POST /api/challenges. Runs
+ * right after {@link JwtAuthenticationFilter} inside the security chain, so the bucket is keyed by
+ * the authenticated principal and an over-limit request is turned away before it reaches a
+ * controller, the database or an executor. Unauthenticated requests pass through and are rejected
+ * by the authorization rules as before.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !rateLimiter.isEnabled() || endpointOf(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                     @NonNull HttpServletResponse response,
+                                     @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        TokenBucketRateLimiter.Decision decision =
+                rateLimiter.tryConsume(authentication.getName(), admin, endpointOf(request));
+
+        response.setHeader(LIMIT_HEADER, String.valueOf(decision.limit()));
+        response.setHeader(REMAINING_HEADER, String.valueOf(decision.remaining()));
+
+        if (!decision.allowed()) {
+            log.debug("Rate limit exceeded for {} on {} {}", authentication.getName(),
+                    request.getMethod(), request.getRequestURI());
+            sendTooManyRequestsError(request, response, decision.retryAfterSeconds());
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private TokenBucketRateLimiter.Endpoint endpointOf(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod())) {
+            return null;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return switch (path) {
+            case "/api/submissions" -> TokenBucketRateLimiter.Endpoint.SUBMISSIONS;
+            case "/api/submissions/samples" -> TokenBucketRateLimiter.Endpoint.SAMPLES;
+            case "/api/challenges" -> TokenBucketRateLimiter.Endpoint.CHALLENGES;
+            default -> null;
+        };
+    }
+
+    private void sendTooManyRequestsError(HttpServletRequest request, HttpServletResponse response,
+                                          long retryAfterSeconds) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json");
+
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        errorResponse.put("message", "Too many requests, please try again in " + retryAfterSeconds + " seconds");
+        errorResponse.put("error", HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("path", request.getRequestURI());
+
+        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+    }
+}
@@ -0,0 +1,217 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.CodeExecutionResult;
+import com.edi.backend.exception.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * AIMD limit on concurrent sandbox executions. Every run that reached the sandbox is a sample;
+ * runs answered entirely from the result cache are not. An overload signal multiplies the limit by
+ * execution.concurrency.backoff-ratio: the executor failing, Judge0 reporting an internal error, or
+ * the sandbox overhead (wall time minus the CPU time Judge0 reports for the program) exceeding
+ * execution.concurrency.target-latency-ms. Time limits and other errors of the user's own code are
+ * not overload, so an infinite loop costs only its own run. Healthy runs while at least half the limit is in use add
+ * one per window: the limit grows by one only after as many healthy runs as the limit itself, so
+ * it rises linearly per round trip rather than doubling like a per-run increase would. So when Judge0 slows down the backend sends it less work instead of piling up requests
+ * that all time out together. Synchronous submissions over the limit are rejected right away
+ * with a Retry-After estimate; queue workers wait for a permit instead.
+ */
+@Service
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double LATENCY_SMOOTHING = 0.2;
+    // Internal error and exec format error: the sandbox failed, not the program
+    private static final Set<Integer> SANDBOX_FAILURE_STATUS_IDS = Set.of(13, 14);
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double targetLatencyMs;
+    private final double backoffRatio;
+    private final Counter rejectedCounter;
+    private final Counter increaseCounter;
+    private final Counter decreaseCounter;
+    private final LongSupplier nanoTime;
+    private double limit;
+    private int inFlight;
+    private int healthyInWindow;
+    private double averageLatencyMs;
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${execution.concurrency.enabled:true}") boolean enabled,
+            @Value("${execution.concurrency.initial-limit:20}") int initialLimit,
+            @Value("${execution.concurrency.min-limit:2}") int minLimit,
+            @Value("${execution.concurrency.max-limit:200}") int maxLimit,
+            @Value("${execution.concurrency.target-latency-ms:4000}") double targetLatencyMs,
+            @Value("${execution.concurrency.backoff-ratio:0.9}") double backoffRatio
+    ) {
+        this(meterRegistry, enabled, initialLimit, minLimit, maxLimit, targetLatencyMs, backoffRatio, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(MeterRegistry meterRegistry, boolean enabled, int initialLimit, int minLimit,
+                               int maxLimit, double targetLatencyMs, double backoffRatio, LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyMs = targetLatencyMs;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.averageLatencyMs = targetLatencyMs / 2;
+
+        Gauge.builder("execution.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit on concurrent executions")
+                .register(meterRegistry);
+        Gauge.builder("execution.concurrency.in-flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Executions currently holding a permit")
+                .register(meterRegistry);
+        this.rejectedCounter = meterRegistry.counter("execution.concurrency.rejected");
+        this.increaseCounter = meterRegistry.counter("execution.concurrency.limit.changes", "direction", "increase");
+        this.decreaseCounter = meterRegistry.counter("execution.concurrency.limit.changes", "direction", "decrease");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Takes a permit or fails fast with a 429 carrying an estimate of when one frees up.
+     */
+    public synchronized Permit acquireOrReject() {
+        if (enabled && inFlight >= (int) limit) {
+            rejectedCounter.increment();
+            throw new ConcurrencyLimitExceededException(
+                    "Code execution is at capacity, please try again shortly", retryAfterSeconds(inFlight));
+        }
+        inFlight++;
+        return new Permit(nanoTime.getAsLong());
+    }
+
+    /**
+     * Takes a permit, waiting for one to free up if necessary.
+     */
+    public synchronized Permit acquire() throws InterruptedException {
+        while (enabled && inFlight >= (int) limit) {
+            wait();
+        }
+        inFlight++;
+        return new Permit(nanoTime.getAsLong());
+    }
+
+    /**
+     * Rough time until the given backlog ahead of a new request drains: one average run per
+     * limit-sized wave of executions.
+     */
+    public synchronized long retryAfterSeconds(int ahead) {
+        double waves = Math.ceil((ahead + 1) / Math.max(1.0, limit));
+        return Math.max(1, (long) Math.ceil(waves * averageLatencyMs / 1000.0));
+    }
+
+    private synchronized void onComplete(long latencyNanos, CodeExecutionResult result, Throwable error) {
+        inFlight--;
+
+        double latencyMs = latencyNanos / 1_000_000.0;
+        averageLatencyMs = LATENCY_SMOOTHING * latencyMs + (1 - LATENCY_SMOOTHING) * averageLatencyMs;
+
+        double overheadMs = latencyMs - cpuTimeMs(result);
+        boolean success = error == null
+                && result != null
+                && !SANDBOX_FAILURE_STATUS_IDS.contains(result.getStatusId());
+
+        int previous = (int) limit;
+        if (!success || overheadMs > targetLatencyMs) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            healthyInWindow = 0;
+        } else if (inFlight * 2 >= limit && ++healthyInWindow >= (int) limit) {
+            limit = Math.min(maxLimit, limit + 1);
+            healthyInWindow = 0;
+        }
+
+        int current = (int) limit;
+        if (current != previous) {
+            if (current > previous) {
+                increaseCounter.increment();
+                log.info("Raised execution concurrency limit from {} to {}", previous, current);
+            } else {
+                decreaseCounter.increment();
+                log.info("Lowered execution concurrency limit from {} to {} (overhead {} ms, success {})",
+                        previous, current, Math.round(overheadMs), success);
+            }
+        }
+        notifyAll();
+    }
+
+    private synchronized void onCached() {
+        inFlight--;
+        notifyAll();
+    }
+
+    /**
+     * CPU time Judge0 reports for the program itself, in milliseconds; zero when unknown.
+     */
+    private static double cpuTimeMs(CodeExecutionResult result) {
+        if (result == null || result.getTime() == null) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(result.getTime()) * 1000;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public class Permit {
+        private final long acquiredAt;
+        private volatile boolean executed;
+        private boolean released;
+
+        private Permit(long acquiredAt) {
+            this.acquiredAt = acquiredAt;
+        }
+
+        /**
+         * Marks that work under this permit went to the sandbox; a permit released without it was
+         * answered from the cache and is not a sample.
+         */
+        public void markExecuted() {
+            executed = true;
+        }
+
+        /**
+         * Returns the permit with the run's result, or the error when the run failed.
+         */
+        public void release(CodeExecutionResult result, Throwable error) {
+            synchronized (AdaptiveConcurrencyLimiter.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                if (executed) {
+                    onComplete(nanoTime.getAsLong() - acquiredAt, result, error);
+                } else {
+                    onCached();
+                }
+            }
+        }
+    }
+}
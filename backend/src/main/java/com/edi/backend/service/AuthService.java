@@ -4,11 +4,9 @@ import com.edi.backend.dto.AuthResponse;
 import com.edi.backend.dto.LoginRequest;
 import com.edi.backend.dto.RegisterRequest;
 import com.edi.backend.entity.Role;
-import com.edi.backend.entity.SubmissionStatus;
 import com.edi.backend.entity.User;
 import com.edi.backend.exception.DuplicateUserException;
 import com.edi.backend.exception.UserNotFoundException;
-import com.edi.backend.repository.SubmissionRepository;
 import com.edi.backend.repository.UserRepository;
 import com.edi.backend.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
@@ -30,7 +28,8 @@ public class AuthService {
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
     private final UserDetailsService userDetailsService;
-    private final SubmissionRepository submissionRepository;
+    private final SolvedChallengeCache solvedChallengeCache;
+    private final LeaderboardService leaderboardService;
 
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
@@ -49,6 +48,7 @@ public class AuthService {
                 .build();
 
         user = userRepository.save(user);
+        leaderboardService.addUser(user);
 
         UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
         String token = jwtUtil.generateToken(userDetails);
@@ -74,7 +74,7 @@ public class AuthService {
         UserDetails userDetails = userDetailsService.loadUserByUsername(request.getEmail());
         String token = jwtUtil.generateToken(userDetails);
 
-        var acceptedChallengeIds = submissionRepository.findChallengeIdsByUserIdAndStatus(user.getId(), SubmissionStatus.ACCEPTED);
+        var acceptedChallengeIds = solvedChallengeCache.solvedChallengeIds(user.getId());
 
         return AuthResponse.builder()
                 .token(token)
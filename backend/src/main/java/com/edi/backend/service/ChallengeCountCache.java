@@ -0,0 +1,53 @@
+package com.edi.backend.service;
+
+import com.edi.backend.repository.ChallengeRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Number of challenges, so listing them needs no COUNT(*) per page. It is counted once on first
+ * use and then moved by ChallengeService as challenges are created and deleted, after commit.
+ * Challenges written around the service (InitService, SQL) are picked up when the count is dropped
+ * every challenges.count.refresh-interval-ms and counted again on the next read.
+ */
+@Service
+public class ChallengeCountCache {
+
+    private static final long UNKNOWN = -1;
+
+    private final ChallengeRepository challengeRepository;
+    private final AtomicLong count = new AtomicLong(UNKNOWN);
+
+    public ChallengeCountCache(ChallengeRepository challengeRepository) {
+        this.challengeRepository = challengeRepository;
+    }
+
+    public long get() {
+        long current = count.get();
+        if (current != UNKNOWN) {
+            return current;
+        }
+        long counted = challengeRepository.count();
+        count.compareAndSet(UNKNOWN, counted);
+        return counted;
+    }
+
+    public void created() {
+        AfterCommit.run(() -> apply(1));
+    }
+
+    public void deleted() {
+        AfterCommit.run(() -> apply(-1));
+    }
+
+    @Scheduled(fixedDelayString = "${challenges.count.refresh-interval-ms:300000}")
+    public void invalidate() {
+        count.set(UNKNOWN);
+    }
+
+    private void apply(long delta) {
+        count.updateAndGet(current -> current == UNKNOWN ? UNKNOWN : Math.max(0, current + delta));
+    }
+}
@@ -0,0 +1,36 @@
+package com.edi.backend.service;
+
+import com.edi.backend.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last challenge of a page ordered by a sort column and then id, passed to
+ * clients as an opaque URL-safe token. It names its sort column, so a cursor from one ordering
+ * is rejected by another instead of silently skipping rows.
+ */
+record ChallengeCursor(String sortBy, Long id, String value) {
+
+    String encode() {
+        String token = sortBy + "|" + id + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ChallengeCursor decode(String cursor, String sortBy) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // The value comes last and may itself contain the separator
+            String[] parts = token.split("\\|", 3);
+            if (parts.length == 3 && parts[0].equals(sortBy)) {
+                return new ChallengeCursor(parts[0], Long.parseLong(parts[1]), parts[2]);
+            }
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(cursor);
+        }
+        throw new InvalidCursorException(cursor);
+    }
+}
@@ -3,41 +3,103 @@ package com.edi.backend.service;
 import com.edi.backend.dto.ChallengeGenerationRequest;
 import com.edi.backend.dto.ChallengeRequest;
 import com.edi.backend.dto.ChallengeResponse;
+import com.edi.backend.dto.ChallengeSummaryResponse;
+import com.edi.backend.dto.CursorPageResponse;
 import com.edi.backend.dto.PageResponse;
+import com.edi.backend.dto.TestCaseDefinition;
 import com.edi.backend.entity.Challenge;
+import com.edi.backend.entity.ChallengeTestCase;
 import com.edi.backend.exception.ChallengeNotFoundException;
+import com.edi.backend.exception.InvalidCursorException;
 import com.edi.backend.repository.ChallengeRepository;
+import com.edi.backend.repository.ChallengeTestCaseRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class ChallengeService {
 
+    private static final String CREATED_AT_SORT = "createdAt";
+    private static final String TITLE_SORT = "title";
+
     private final ChallengeRepository challengeRepository;
+    private final ChallengeTestCaseRepository challengeTestCaseRepository;
     private final AiChallengeGenerator aiChallengeGenerator;
+    private final ExecutionResultCache executionResultCache;
+    private final FailFastTestPlanner failFastTestPlanner;
+    private final ChallengeStatsService challengeStatsService;
+    private final ChallengeCountCache challengeCountCache;
 
+    /**
+     * One page of challenge summaries in two queries whatever the page size: the list columns, and
+     * the tags of every challenge on the page in one batch. The total is the cached count.
+     */
     @Transactional(readOnly = true)
-    public PageResponse<ChallengeResponse> getAllChallenges(int page, int size, String sortBy) {
+    public PageResponse<ChallengeSummaryResponse> getAllChallenges(int page, int size, String sortBy) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, sortBy));
-        Page<Challenge> challengePage = challengeRepository.findAll(pageable);
-
-        return PageResponse.<ChallengeResponse>builder()
-                .content(challengePage.getContent().stream()
-                        .map(this::mapToResponse)
-                        .toList())
-                .page(challengePage.getNumber())
-                .size(challengePage.getSize())
-                .totalElements(challengePage.getTotalElements())
-                .totalPages(challengePage.getTotalPages())
-                .last(challengePage.isLast())
+        Slice<ChallengeRepository.ChallengeSummary> challengeSlice = challengeRepository.findSummaries(pageable);
+        long total = challengeCountCache.get();
+
+        return PageResponse.<ChallengeSummaryResponse>builder()
+                .content(toSummaries(challengeSlice.getContent()))
+                .page(challengeSlice.getNumber())
+                .size(challengeSlice.getSize())
+                .totalElements(total)
+                .totalPages((int) ((total + size - 1) / size))
+                .last(!challengeSlice.hasNext())
+                .build();
+    }
+
+    /**
+     * Challenge summaries after the given cursor, ordered by createdAt or title descending and then
+     * id. Each page seeks to its cursor instead of skipping an offset, so deep pages cost the same
+     * as the first.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ChallengeSummaryResponse> scrollChallenges(String cursor, int size, String sortBy) {
+        String sort = TITLE_SORT.equals(sortBy) ? TITLE_SORT : CREATED_AT_SORT;
+        ChallengeCursor after = ChallengeCursor.decode(cursor, sort);
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<ChallengeRepository.ChallengeSummary> rows;
+        if (sort.equals(TITLE_SORT)) {
+            rows = after == null
+                    ? challengeRepository.findSummariesByTitle(limit)
+                    : challengeRepository.findSummariesByTitleAfter(after.value(), after.id(), limit);
+        } else {
+            rows = after == null
+                    ? challengeRepository.findSummariesByCreatedAt(limit)
+                    : challengeRepository.findSummariesByCreatedAtAfter(parseCreatedAt(after, cursor), after.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<ChallengeRepository.ChallengeSummary> page = hasNext ? rows.subList(0, size) : rows;
+        ChallengeRepository.ChallengeSummary last = page.isEmpty() ? null : page.get(page.size() - 1);
+        String nextCursor = null;
+        if (hasNext) {
+            String value = sort.equals(TITLE_SORT) ? last.getTitle() : last.getCreatedAt().toString();
+            nextCursor = new ChallengeCursor(sort, last.getId(), value).encode();
+        }
+
+        return CursorPageResponse.<ChallengeSummaryResponse>builder()
+                .content(toSummaries(page))
+                .size(page.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .totalElements(challengeCountCache.get())
                 .build();
     }
 
@@ -69,6 +131,8 @@ public class ChallengeService {
                 .build();
 
         challenge = challengeRepository.save(challenge);
+        saveTestCases(challenge.getId(), generated.getTestCases());
+        challengeCountCache.created();
         return mapToResponse(challenge);
     }
 
@@ -78,6 +142,65 @@ public class ChallengeService {
                 .orElseThrow(() -> new ChallengeNotFoundException(id));
 
         challengeRepository.delete(challenge);
+        challengeTestCaseRepository.deleteByChallengeId(id);
+        executionResultCache.invalidateChallenge(id);
+        failFastTestPlanner.invalidateChallenge(id);
+        challengeStatsService.invalidateChallenge(id);
+        challengeCountCache.deleted();
+    }
+
+    /**
+     * Maps summary rows, loading the tags of all of them in one query.
+     */
+    private List<ChallengeSummaryResponse> toSummaries(List<ChallengeRepository.ChallengeSummary> rows) {
+        Map<Long, List<String>> tagsByChallenge = new HashMap<>();
+        if (!rows.isEmpty()) {
+            List<Long> ids = rows.stream().map(ChallengeRepository.ChallengeSummary::getId).toList();
+            for (ChallengeRepository.ChallengeTag tag : challengeRepository.findTagsByChallengeIds(ids)) {
+                tagsByChallenge.computeIfAbsent(tag.getChallengeId(), id -> new ArrayList<>()).add(tag.getTag());
+            }
+        }
+
+        return rows.stream()
+                .map(summary -> ChallengeSummaryResponse.builder()
+                        .id(summary.getId())
+                        .title(summary.getTitle())
+                        .descriptionPreview(summary.getDescriptionPreview())
+                        .difficulty(summary.getDifficulty())
+                        .tags(tagsByChallenge.getOrDefault(summary.getId(), List.of()))
+                        .createdAt(summary.getCreatedAt())
+                        .build())
+                .toList();
+    }
+
+    private static LocalDateTime parseCreatedAt(ChallengeCursor cursor, String token) {
+        try {
+            return LocalDateTime.parse(cursor.value());
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+
+    private void saveTestCases(Long challengeId, List<TestCaseDefinition> definitions) {
+        if (definitions == null || definitions.isEmpty()) {
+            return;
+        }
+
+        List<ChallengeTestCase> testCases = new ArrayList<>();
+        for (TestCaseDefinition definition : definitions) {
+            if (definition.getInput() == null || definition.getExpected() == null) {
+                continue;
+            }
+            testCases.add(ChallengeTestCase.builder()
+                    .challengeId(challengeId)
+                    .position(testCases.size())
+                    .name(definition.getName())
+                    .input(definition.getInput())
+                    .expected(definition.getExpected())
+                    .weight(definition.getWeight() != null && definition.getWeight() > 0 ? definition.getWeight() : 1)
+                    .build());
+        }
+        challengeTestCaseRepository.saveAll(testCases);
     }
 
     private ChallengeResponse mapToResponse(Challenge challenge) {
@@ -90,6 +213,7 @@ public class ChallengeService {
                 .sampleTests(challenge.getSampleTests())
                 .tags(challenge.getTags())
                 .createdAt(challenge.getCreatedAt())
+                .stats(challengeStatsService.statsOf(challenge.getId()))
                 .build();
     }
 }
@@ -0,0 +1,237 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.ChallengeStatsResponse;
+import com.edi.backend.dto.HistogramBucket;
+import com.edi.backend.entity.ChallengeStats;
+import com.edi.backend.entity.SubmissionStatus;
+import com.edi.backend.repository.ChallengeStatsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Per-challenge statistics: evaluated attempts, accepted attempts, unique solvers, and histograms
+ * of the runtime and memory of accepted runs. The counters live in memory and are updated after
+ * each evaluation commits, so reading them never aggregates over submissions. They are rebuilt
+ * from submissions once at startup and written to challenge_stats every
+ * challenge-stats.flush-interval-ms for reporting. If the rebuild fails, nothing is flushed, so
+ * the partial counters never overwrite good rows; each flush retries the rebuild first.
+ */
+@Service
+@Slf4j
+public class ChallengeStatsService {
+
+    static final int[] RUNTIME_BOUNDS_MS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+    static final int[] MEMORY_BOUNDS_KB = {4096, 8192, 16384, 32768, 65536, 131072, 262144};
+
+    private final ChallengeStatsRepository challengeStatsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+    private final Set<Long> unflushed = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilt;
+
+    public ChallengeStatsService(ChallengeStatsRepository challengeStatsRepository, JdbcTemplate jdbcTemplate) {
+        this.challengeStatsRepository = challengeStatsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Counts an evaluated submission once the caller's transaction commits.
+     */
+    public void record(Long challengeId, SubmissionStatus status, Integer executionTime, Integer memory, boolean firstSolve) {
+        AfterCommit.run(() -> apply(challengeId, status, executionTime, memory, firstSolve));
+    }
+
+    public ChallengeStatsResponse statsOf(Long challengeId) {
+        Counters stats = counters.get(challengeId);
+        return stats != null ? stats.toResponse() : new Counters().toResponse();
+    }
+
+    public void invalidateChallenge(Long challengeId) {
+        counters.remove(challengeId);
+        unflushed.remove(challengeId);
+        challengeStatsRepository.deleteById(challengeId);
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        try {
+            jdbcTemplate.query("SELECT challenge_id, COUNT(*), "
+                            + "SUM(CASE WHEN status = 'ACCEPTED' THEN 1 ELSE 0 END), "
+                            + "COUNT(DISTINCT CASE WHEN status = 'ACCEPTED' THEN user_id END) "
+                            + "FROM submissions WHERE status <> 'PENDING' GROUP BY challenge_id",
+                    row -> {
+                        counters.computeIfAbsent(row.getLong(1), id -> new Counters())
+                                .load(row.getLong(2), row.getLong(3), row.getLong(4));
+                    });
+            loadHistogram("execution_time", RUNTIME_BOUNDS_MS, true);
+            loadHistogram("memory", MEMORY_BOUNDS_KB, false);
+        } catch (Exception e) {
+            log.warn("Could not rebuild challenge statistics from submissions, not flushing them: {}", e.getMessage());
+            return;
+        }
+        rebuilt = true;
+        unflushed.addAll(counters.keySet());
+        log.info("Rebuilt statistics of {} challenges from submissions", counters.size());
+    }
+
+    @Scheduled(fixedDelayString = "${challenge-stats.flush-interval-ms:60000}")
+    public void flush() {
+        if (!rebuilt) {
+            rebuild();
+            if (!rebuilt) {
+                return;
+            }
+        }
+        List<ChallengeStats> rows = new ArrayList<>();
+        for (Long challengeId : List.copyOf(unflushed)) {
+            unflushed.remove(challengeId);
+            Counters stats = counters.get(challengeId);
+            if (stats != null) {
+                rows.add(stats.toEntity(challengeId));
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            challengeStatsRepository.saveAll(rows);
+        } catch (Exception e) {
+            log.warn("Failed to flush statistics of {} challenges", rows.size(), e);
+            rows.forEach(row -> unflushed.add(row.getChallengeId()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void apply(Long challengeId, SubmissionStatus status, Integer executionTime, Integer memory, boolean firstSolve) {
+        counters.computeIfAbsent(challengeId, id -> new Counters())
+                .add(status == SubmissionStatus.ACCEPTED, executionTime, memory, firstSolve);
+        unflushed.add(challengeId);
+    }
+
+    private void loadHistogram(String column, int[] bounds, boolean runtime) {
+        StringBuilder bucket = new StringBuilder("CASE");
+        for (int i = 0; i < bounds.length; i++) {
+            bucket.append(" WHEN ").append(column).append(" <= ").append(bounds[i]).append(" THEN ").append(i);
+        }
+        bucket.append(" ELSE ").append(bounds.length).append(" END");
+
+        jdbcTemplate.query("SELECT challenge_id, " + bucket + " AS bucket, COUNT(*) FROM submissions "
+                        + "WHERE status = 'ACCEPTED' AND " + column + " IS NOT NULL "
+                        + "GROUP BY challenge_id, " + bucket,
+                row -> {
+                    counters.computeIfAbsent(row.getLong(1), id -> new Counters())
+                            .loadBucket(runtime, row.getInt(2), row.getLong(3));
+                });
+    }
+
+    private static int bucketOf(int value, int[] bounds) {
+        int index = Arrays.binarySearch(bounds, value);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static List<HistogramBucket> histogram(long[] counts, int[] bounds) {
+        List<HistogramBucket> buckets = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            buckets.add(new HistogramBucket(i < bounds.length ? bounds[i] : null, counts[i]));
+        }
+        return buckets;
+    }
+
+    /**
+     * Upper bound of the bucket holding the median; null when it is the open bucket above the last
+     * bound, which has no upper bound to report.
+     */
+    private static Integer median(long[] counts, int[] bounds) {
+        long total = Arrays.stream(counts).sum();
+        if (total == 0) {
+            return null;
+        }
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen * 2 >= total) {
+                return i < bounds.length ? bounds[i] : null;
+            }
+        }
+        return null;
+    }
+
+    private static String join(long[] counts) {
+        return Arrays.stream(counts).mapToObj(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private static class Counters {
+        private long attempts;
+        private long accepted;
+        private long uniqueSolvers;
+        private final long[] runtime = new long[RUNTIME_BOUNDS_MS.length + 1];
+        private final long[] memory = new long[MEMORY_BOUNDS_KB.length + 1];
+
+        private synchronized void load(long attempts, long accepted, long uniqueSolvers) {
+            this.attempts = attempts;
+            this.accepted = accepted;
+            this.uniqueSolvers = uniqueSolvers;
+        }
+
+        private synchronized void loadBucket(boolean runtimeBucket, int bucket, long count) {
+            (runtimeBucket ? runtime : memory)[bucket] = count;
+        }
+
+        private synchronized void add(boolean acceptedRun, Integer executionTime, Integer memoryKb, boolean firstSolve) {
+            attempts++;
+            if (firstSolve) {
+                uniqueSolvers++;
+            }
+            if (!acceptedRun) {
+                return;
+            }
+            accepted++;
+            if (executionTime != null) {
+                runtime[bucketOf(executionTime, RUNTIME_BOUNDS_MS)]++;
+            }
+            if (memoryKb != null) {
+                memory[bucketOf(memoryKb, MEMORY_BOUNDS_KB)]++;
+            }
+        }
+
+        private synchronized ChallengeStatsResponse toResponse() {
+            return ChallengeStatsResponse.builder()
+                    .attempts(attempts)
+                    .accepted(accepted)
+                    .uniqueSolvers(uniqueSolvers)
+                    .acceptanceRate(attempts > 0 ? (double) accepted / attempts : null)
+                    .medianRuntimeMs(median(runtime, RUNTIME_BOUNDS_MS))
+                    .medianMemoryKb(median(memory, MEMORY_BOUNDS_KB))
+                    .runtimeHistogram(histogram(runtime, RUNTIME_BOUNDS_MS))
+                    .memoryHistogram(histogram(memory, MEMORY_BOUNDS_KB))
+                    .build();
+        }
+
+        private synchronized ChallengeStats toEntity(Long challengeId) {
+            return ChallengeStats.builder()
+                    .challengeId(challengeId)
+                    .attempts(attempts)
+                    .accepted(accepted)
+                    .uniqueSolvers(uniqueSolvers)
+                    .runtimeHistogram(join(runtime))
+                    .memoryHistogram(join(memory))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.edi.backend.service;
+
+import com.edi.backend.entity.CodeBlob;
+import com.edi.backend.entity.CompressedTextConverter;
+import com.edi.backend.entity.Submission;
+import com.edi.backend.repository.CodeBlobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed storage for submitted code. Each distinct source is stored once in code_blobs
+ * under its SHA-256, and submissions point at it by hash. Storing code that is already there is a
+ * single indexed ref-count update; only new code is inserted. A blob is deleted when its last
+ * submission goes. Callers run these methods inside their write transaction, so identical code
+ * submitted concurrently waits on the blob row until the earlier transaction commits. That is
+ * accepted: the ref count is what decides when a blob may be deleted, so it is not batched in
+ * memory where a crash could lose increments and free a blob that is still referenced. The gauges
+ * are counted once at startup and then kept as running totals, moved after each commit.
+ */
+@Service
+public class CodeBlobService {
+
+    private final CodeBlobRepository codeBlobRepository;
+    private final Counter newBlobCounter;
+    private final Counter duplicateCounter;
+    private final Counter deduplicatedCharsCounter;
+    private final AtomicLong blobCount = new AtomicLong();
+    private final AtomicLong referenceCount = new AtomicLong();
+
+    public CodeBlobService(CodeBlobRepository codeBlobRepository, MeterRegistry meterRegistry) {
+        this.codeBlobRepository = codeBlobRepository;
+        this.newBlobCounter = meterRegistry.counter("submission.code.stores", "result", "new");
+        this.duplicateCounter = meterRegistry.counter("submission.code.stores", "result", "duplicate");
+        this.deduplicatedCharsCounter = meterRegistry.counter("submission.code.deduplicated-chars");
+
+        Gauge.builder("submission.code.blobs", blobCount, AtomicLong::get)
+                .description("Distinct code blobs stored")
+                .register(meterRegistry);
+        Gauge.builder("submission.code.references", referenceCount, AtomicLong::get)
+                .description("Submissions pointing at a code blob")
+                .register(meterRegistry);
+        Gauge.builder("submission.code.dedupe-ratio", this, CodeBlobService::dedupeRatio)
+                .description("Submissions per stored code blob")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a reference to the blob for the code, inserting it if it is new, and returns its hash.
+     */
+    public String store(String code) {
+        String hash = hashOf(code);
+        if (codeBlobRepository.incrementRefCount(hash) > 0) {
+            duplicateCounter.increment();
+            deduplicatedCharsCounter.increment(code.length());
+            AfterCommit.run(() -> referenceCount.incrementAndGet());
+            return hash;
+        }
+
+        if (codeBlobRepository.insertIfAbsent(hash, CompressedTextConverter.encode(code), code.length()) > 0) {
+            newBlobCounter.increment();
+            AfterCommit.run(() -> {
+                blobCount.incrementAndGet();
+                referenceCount.incrementAndGet();
+            });
+            return hash;
+        }
+
+        // Another transaction inserted the same code in between
+        codeBlobRepository.incrementRefCount(hash);
+        duplicateCounter.increment();
+        deduplicatedCharsCounter.increment(code.length());
+        AfterCommit.run(() -> referenceCount.incrementAndGet());
+        return hash;
+    }
+
+    public void release(String hash) {
+        if (hash == null) {
+            return;
+        }
+        codeBlobRepository.decrementRefCount(hash);
+        boolean deleted = codeBlobRepository.deleteIfUnreferenced(hash) > 0;
+        AfterCommit.run(() -> {
+            referenceCount.decrementAndGet();
+            if (deleted) {
+                blobCount.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Returns the submission's code, from its blob or, for rows stored before blobs, inline.
+     */
+    public String codeOf(Submission submission) {
+        if (submission.getCodeHash() == null) {
+            return submission.getCode();
+        }
+        return codeBlobRepository.findById(submission.getCodeHash())
+                .map(CodeBlob::getContent)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Code blob " + submission.getCodeHash() + " of submission " + submission.getId() + " is missing"));
+    }
+
+    @PostConstruct
+    public void countStats() {
+        blobCount.set(codeBlobRepository.count());
+        referenceCount.set(codeBlobRepository.sumRefCounts());
+    }
+
+    private double dedupeRatio() {
+        long blobs = blobCount.get();
+        return blobs == 0 ? 1.0 : (double) referenceCount.get() / blobs;
+    }
+
+    private String hashOf(String code) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(code.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,80 +1,362 @@
 package com.edi.backend.service;
 
 import com.edi.backend.dto.CodeExecutionResult;
+import com.edi.backend.dto.CursorPageResponse;
+import com.edi.backend.dto.SampleRunResponse;
 import com.edi.backend.dto.SubmissionResponse;
+import com.edi.backend.dto.SubmissionSummaryResponse;
+import com.edi.backend.dto.TestResultResponse;
 import com.edi.backend.entity.Challenge;
+import com.edi.backend.entity.ChallengeTestCase;
 import com.edi.backend.entity.Submission;
 import com.edi.backend.entity.SubmissionStatus;
-import com.edi.backend.entity.User;
+import com.edi.backend.entity.SubmissionTestResult;
+import com.edi.backend.exception.AuthorizationException;
 import com.edi.backend.exception.ChallengeNotFoundException;
 import com.edi.backend.exception.CodeExecutionException;
-import com.edi.backend.exception.UserNotFoundException;
+import com.edi.backend.exception.SubmissionNotFoundException;
 import com.edi.backend.repository.ChallengeRepository;
+import com.edi.backend.repository.ChallengeTestCaseRepository;
 import com.edi.backend.repository.SubmissionRepository;
-import com.edi.backend.repository.UserRepository;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CodeExecutionService {
 
+    private static final Pattern HARNESS_LINE = Pattern.compile("#(\\d+) (.*)");
+
     private final CodeExecutor codeExecutor;
+    private final ExecutionResultCache executionResultCache;
+    private final FailFastTestPlanner failFastTestPlanner;
+    private final TestCaseShardPlanner testCaseShardPlanner;
     private final SubmissionRepository submissionRepository;
     private final ChallengeRepository challengeRepository;
-    private final UserRepository userRepository;
-
-    @Transactional
+    private final ChallengeTestCaseRepository challengeTestCaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final SubmissionStorageService submissionStorageService;
+    private final CodeBlobService codeBlobService;
+    private final SubmissionEventService submissionEventService;
+    private final XpService xpService;
+    private final ChallengeStatsService challengeStatsService;
+
+    /**
+     * Evaluates a submission synchronously. Not transactional on purpose: the challenge and its
+     * test cases are read in short transactions of their own, the sandbox run holds no database
+     * connection, and the submission insert and XP award share one short write transaction. A slow
+     * Judge0 therefore no longer pins a pooled connection per in-flight submission.
+     */
     public SubmissionResponse evaluateSubmission(Long userId, Long challengeId, String userCode) {
         log.info("Evaluating submission for user {} on challenge {}", userId, challengeId);
 
         Challenge challenge = challengeRepository.findById(challengeId)
                 .orElseThrow(() -> new ChallengeNotFoundException(challengeId));
 
-        String combinedCode = buildExecutableCode(userCode, challenge.getHiddenTests());
+        List<ChallengeTestCase> testCases = challengeTestCaseRepository.findByChallengeIdOrderByPositionAsc(challengeId);
+        List<String> programs = buildPrograms(userCode, challenge, testCases);
 
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.acquireOrReject();
         CodeExecutionResult result;
         try {
-            result = codeExecutor.execute(combinedCode, "");
+            result = programs.size() == 1
+                    ? executeWithCache(challenge, programs.get(0), permit)
+                    : executeShardsAsync(challenge, programs, permit).join();
+            permit.release(result, null);
         } catch (Exception e) {
+            permit.release(null, e);
             log.error("Code execution failed", e);
             throw new CodeExecutionException("Execution service unavailable", e);
         }
 
-        SubmissionStatus status = determineStatus(result);
-
         Submission submission = Submission.builder()
                 .userId(userId)
                 .challengeId(challengeId)
-                .code(userCode)
-                .status(status)
-                .stdout(result.getStdout())
-                .stderr(result.getStderr())
-                .executionTime(parseExecutionTime(result.getTime()))
-                .memory(result.getMemory())
                 .build();
 
-        boolean shouldAwardXP = false;
-        if (status == SubmissionStatus.ACCEPTED) {
-            shouldAwardXP = !submissionRepository.existsByUserIdAndChallengeIdAndStatus(
-                    userId, challengeId, SubmissionStatus.ACCEPTED
-            );
+        Submission saved = transactionTemplate.execute(tx -> {
+            submission.setCodeHash(codeBlobService.store(userCode));
+            return recordResult(submission, challenge, testCases, result);
+        });
+        return mapToResponse(saved);
+    }
+
+    @Transactional
+    public SubmissionResponse createPendingSubmission(Long userId, Long challengeId, String userCode) {
+        if (!challengeRepository.existsById(challengeId)) {
+            throw new ChallengeNotFoundException(challengeId);
         }
 
+        Submission submission = Submission.builder()
+                .userId(userId)
+                .challengeId(challengeId)
+                .codeHash(codeBlobService.store(userCode))
+                .status(SubmissionStatus.PENDING)
+                .build();
+
         submission = submissionRepository.save(submission);
+        log.info("Queued submission {} for user {} on challenge {}", submission.getId(), userId, challengeId);
+        return mapToResponse(submission);
+    }
+
+    /**
+     * Removes a PENDING submission that could not be queued, together with its code reference.
+     */
+    @Transactional
+    public void discardPendingSubmission(Long submissionId) {
+        submissionRepository.findById(submissionId).ifPresent(submission -> {
+            codeBlobService.release(submission.getCodeHash());
+            submissionRepository.delete(submission);
+        });
+    }
+
+    /**
+     * Runs a PENDING submission. Not transactional on purpose: the submission is read up front,
+     * the executor may complete asynchronously, and the result is written in its own transaction.
+     */
+    public CompletableFuture<Void> processPendingSubmission(Long submissionId) {
+        Submission submission = submissionRepository.findById(submissionId)
+                .orElseThrow(() -> new SubmissionNotFoundException(submissionId));
+
+        if (submission.getStatus() != SubmissionStatus.PENDING) {
+            log.info("Submission {} already evaluated with status {}, skipping", submissionId, submission.getStatus());
+            submissionEventService.publishResult(mapToResponse(submission));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Challenge challenge = challengeRepository.findById(submission.getChallengeId())
+                .orElseThrow(() -> new ChallengeNotFoundException(submission.getChallengeId()));
+
+        List<ChallengeTestCase> testCases = challengeTestCaseRepository.findByChallengeIdOrderByPositionAsc(challenge.getId());
+        List<String> programs = buildPrograms(codeBlobService.codeOf(submission), challenge, testCases);
+
+        AdaptiveConcurrencyLimiter.Permit permit;
+        try {
+            permit = concurrencyLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CodeExecutionException("Interrupted while waiting for an execution slot", e);
+        }
+        submissionEventService.publishRunning(submissionId);
+
+        CompletableFuture<CodeExecutionResult> execution;
+        try {
+            execution = executeShardsAsync(challenge, programs, permit);
+        } catch (RuntimeException e) {
+            execution = CompletableFuture.failedFuture(e);
+        }
+
+        return execution
+                .whenComplete(permit::release)
+                .handle((result, error) -> {
+                    SubmissionResponse evaluated;
+                    if (error != null) {
+                        log.error("Code execution failed for submission {}", submissionId, error);
+                        submission.setStatus(SubmissionStatus.RUNTIME_ERROR);
+                        submissionStorageService.setOutput(submission, null, "Execution service unavailable");
+                        evaluated = mapToResponse(submissionRepository.save(submission));
+                    } else {
+                        evaluated = transactionTemplate.execute(tx ->
+                                mapToResponse(recordResult(submission, challenge, testCases, result)));
+                    }
+                    submissionEventService.publishResult(evaluated);
+                    return null;
+                });
+    }
+
+    /**
+     * Runs code against the challenge's sample tests and stores nothing: no submission, no XP, no
+     * fail-fast statistics. Called from a submission worker in the sample lane.
+     */
+    public CompletableFuture<SampleRunResponse> runSamples(Long challengeId, String userCode) {
+        Challenge challenge = challengeRepository.findById(challengeId)
+                .orElseThrow(() -> new ChallengeNotFoundException(challengeId));
+
+        List<ChallengeTestCase> samples = testCaseShardPlanner.parseSamples(challenge);
+        String program = buildExecutableCode(userCode, testCaseShardPlanner.buildSampleProgram(samples));
+
+        AdaptiveConcurrencyLimiter.Permit permit;
+        try {
+            permit = concurrencyLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CodeExecutionException("Interrupted while waiting for an execution slot", e);
+        }
+
+        CompletableFuture<CodeExecutionResult> execution;
+        try {
+            execution = executeWithCacheAsync(challenge, program, permit);
+        } catch (RuntimeException e) {
+            execution = CompletableFuture.failedFuture(e);
+        }
+
+        return execution
+                .whenComplete(permit::release)
+                .handle((result, error) -> {
+                    if (error != null) {
+                        log.error("Sample run failed for challenge {}", challengeId, error);
+                        throw new CodeExecutionException("Execution service unavailable", error);
+                    }
+                    TestResult testResult = parseTestOutput(result.getStdout(), samples);
+                    // Without samples to check, a clean run is all there is to report
+                    SubmissionStatus status = samples.isEmpty() && result.getStatusId() == 3
+                            ? SubmissionStatus.ACCEPTED
+                            : determineStatus(result, testResult);
+                    return SampleRunResponse.builder()
+                            .challengeId(challengeId)
+                            .status(status)
+                            .stdout(result.getStdout())
+                            .stderr(result.getStderr())
+                            .executionTime(parseExecutionTime(result.getTime()))
+                            .memory(result.getMemory())
+                            .passedTests(testResult.getPassed())
+                            .totalTests(samples.size())
+                            .testResults(mapTestResults(testResult.getResults()))
+                            .build();
+                });
+    }
+
+    @Transactional(readOnly = true)
+    public SubmissionResponse getSubmission(Long submissionId, Long userId) {
+        Submission submission = submissionRepository.findById(submissionId)
+                .orElseThrow(() -> new SubmissionNotFoundException(submissionId));
 
-        if (shouldAwardXP) {
-            awardXP(userId, challenge);
+        if (!submission.getUserId().equals(userId)) {
+            throw new AuthorizationException("You can only view your own submissions");
         }
 
+        submissionStorageService.migrateLater(submission);
         return mapToResponse(submission);
     }
 
+    /**
+     * One page of the user's submission history, newest first. Pages are keyset-paginated on
+     * (createdAt, id) through idx_submissions_user_created, so every page costs the same however
+     * far back it is.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<SubmissionSummaryResponse> listSubmissions(Long userId, Long challengeId,
+                                                                         SubmissionStatus status, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<SubmissionRepository.SubmissionSummary> rows = after == null
+                ? submissionRepository.findHistory(userId, challengeId, status, limit)
+                : submissionRepository.findHistoryAfter(userId, challengeId, status, after.createdAt(), after.id(), limit);
+
+        boolean hasNext = rows.size() > size;
+        List<SubmissionRepository.SubmissionSummary> page = hasNext ? rows.subList(0, size) : rows;
+        SubmissionRepository.SubmissionSummary last = page.isEmpty() ? null : page.get(page.size() - 1);
+
+        return CursorPageResponse.<SubmissionSummaryResponse>builder()
+                .content(page.stream()
+                        .map(row -> SubmissionSummaryResponse.builder()
+                                .id(row.getId())
+                                .challengeId(row.getChallengeId())
+                                .status(row.getStatus())
+                                .score(row.getScore())
+                                .executionTime(row.getExecutionTime())
+                                .memory(row.getMemory())
+                                .createdAt(row.getCreatedAt())
+                                .build())
+                        .toList())
+                .size(page.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? new KeysetCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .build();
+    }
+
+    /**
+     * Challenges with structured test cases get one program per shard; the rest append their
+     * hidden test blob to the user's code as before.
+     */
+    private List<String> buildPrograms(String userCode, Challenge challenge, List<ChallengeTestCase> testCases) {
+        if (testCases.isEmpty()) {
+            return List.of(buildExecutableCode(userCode, failFastTestPlanner.prepareHiddenTests(challenge)));
+        }
+        return testCaseShardPlanner.buildShards(challenge, testCases).stream()
+                .map(tests -> buildExecutableCode(userCode, tests))
+                .toList();
+    }
+
+    private CompletableFuture<CodeExecutionResult> executeShardsAsync(Challenge challenge, List<String> programs,
+                                                                      AdaptiveConcurrencyLimiter.Permit permit) {
+        if (programs.size() == 1) {
+            return executeWithCacheAsync(challenge, programs.get(0), permit);
+        }
+
+        return testCaseShardPlanner.runShards(programs, program -> executeWithCacheAsync(challenge, program, permit));
+    }
+
+    /**
+     * Cache hits never reach the sandbox, so only a miss marks the permit as a concurrency sample.
+     */
+    private CodeExecutionResult executeWithCache(Challenge challenge, String combinedCode,
+                                                 AdaptiveConcurrencyLimiter.Permit permit) {
+        String cacheKey = executionResultCache.keyFor(challenge.getId(), combinedCode);
+        return executionResultCache.get(cacheKey).orElseGet(() -> {
+            permit.markExecuted();
+            CodeExecutionResult result = codeExecutor.execute(combinedCode, "");
+            executionResultCache.put(cacheKey, challenge.getId(), result);
+            return result;
+        });
+    }
+
+    private CompletableFuture<CodeExecutionResult> executeWithCacheAsync(Challenge challenge, String combinedCode,
+                                                                         AdaptiveConcurrencyLimiter.Permit permit) {
+        String cacheKey = executionResultCache.keyFor(challenge.getId(), combinedCode);
+        return executionResultCache.get(cacheKey)
+                .map(CompletableFuture::completedFuture)
+                .orElseGet(() -> {
+                    permit.markExecuted();
+                    return codeExecutor.executeAsync(combinedCode, "")
+                            .thenApply(result -> {
+                                executionResultCache.put(cacheKey, challenge.getId(), result);
+                                return result;
+                            });
+                });
+    }
+
+    private Submission recordResult(Submission submission, Challenge challenge, List<ChallengeTestCase> testCases,
+                                    CodeExecutionResult result) {
+        String stdout = failFastTestPlanner.recordOutcome(challenge, result.getStdout());
+        TestResult testResult = parseTestOutput(stdout, testCases);
+        SubmissionStatus status = determineStatus(result, testResult);
+
+        submission.setStatus(status);
+        submission.setTestResults(new ArrayList<>(testResult.getResults()));
+        submission.setScore(testResult.getScore());
+        submissionStorageService.setOutput(submission, stdout, result.getStderr());
+        submission.setExecutionTime(parseExecutionTime(result.getTime()));
+        submission.setMemory(result.getMemory());
+
+        for (int position : testResult.getFailedPositions()) {
+            failFastTestPlanner.recordFailure(challenge.getId(), FailFastTestPlanner.caseIdOf(testCases.get(position)));
+        }
+
+        submission = submissionRepository.save(submission);
+
+        boolean firstSolve = status == SubmissionStatus.ACCEPTED
+                && xpService.awardFirstSolve(submission.getUserId(), challenge, submission.getId());
+        challengeStatsService.record(challenge.getId(), status, submission.getExecutionTime(), submission.getMemory(), firstSolve);
+
+        return submission;
+    }
+
     private String buildExecutableCode(String userCode, String hiddenTests) {
         return """
                 %s
@@ -84,7 +366,7 @@ public class CodeExecutionService {
                 """.formatted(userCode, hiddenTests);
     }
 
-    private SubmissionStatus determineStatus(CodeExecutionResult result) {
+    private SubmissionStatus determineStatus(CodeExecutionResult result, TestResult testResult) {
         Integer statusId = result.getStatusId();
 
         if (statusId == 6) {
@@ -97,40 +379,116 @@ public class CodeExecutionService {
             return SubmissionStatus.RUNTIME_ERROR;
         }
 
-        TestResult testResult = parseTestOutput(result.getStdout());
-
         if (testResult.getFailed() > 0) {
             return SubmissionStatus.WRONG_ANSWER;
         }
 
-        if (testResult.getPassed() > 0) {
+        // Structured cases that never reported back mean the run stopped early
+        if (testResult.getPassed() > 0 && testResult.getPassed() >= testResult.getExpected()) {
             return SubmissionStatus.ACCEPTED;
         }
 
         return SubmissionStatus.RUNTIME_ERROR;
     }
 
-    private TestResult parseTestOutput(String stdout) {
+    /**
+     * Reads PASS/FAIL lines in one pass. Structured harness lines carry the case position
+     * ("FAIL #2 name: reason"), which maps them to their case and weight; lines from a hidden test
+     * blob count with weight 1 in output order.
+     */
+    private TestResult parseTestOutput(String stdout, List<ChallengeTestCase> testCases) {
+        TestResult testResult = new TestResult(testCases.size());
         if (stdout == null || stdout.isEmpty()) {
-            return new TestResult(0, 0);
+            return testResult.score(testCases);
         }
 
-        long passCount = stdout.lines()
-                .filter(line -> line.trim().startsWith("PASS"))
-                .count();
-
-        long failCount = stdout.lines()
-                .filter(line -> line.trim().startsWith("FAIL"))
-                .count();
+        for (String rawLine : stdout.split("\n")) {
+            String line = rawLine.trim();
+            boolean passed = line.startsWith("PASS");
+            if (!passed && !line.startsWith("FAIL")) {
+                continue;
+            }
+
+            String rest = line.substring(4).trim();
+            Matcher caseLine = HARNESS_LINE.matcher(rest);
+            if (!testCases.isEmpty() && caseLine.matches()) {
+                int position = Integer.parseInt(caseLine.group(1));
+                if (position < 0 || position >= testCases.size()) {
+                    continue;
+                }
+                ChallengeTestCase testCase = testCases.get(position);
+                String label = TestCaseShardPlanner.labelOf(testCase);
+                String detail = caseLine.group(2);
+                String message = !passed && detail.startsWith(label + ": ")
+                        ? detail.substring(label.length() + 2)
+                        : null;
+                testResult.add(position, passed, SubmissionTestResult.builder()
+                        .name(label)
+                        .passed(passed)
+                        .message(message)
+                        .weight(testCase.getWeight())
+                        .build());
+            } else {
+                String name = rest.startsWith(":") ? rest.substring(1).trim() : rest;
+                testResult.add(-1, passed, SubmissionTestResult.builder()
+                        .name(name.isEmpty() ? null : name)
+                        .passed(passed)
+                        .weight(1)
+                        .build());
+            }
+        }
 
-        return new TestResult((int) passCount, (int) failCount);
+        return testResult.score(testCases);
     }
 
     @Data
-    @AllArgsConstructor
     private static class TestResult {
-        int passed;
-        int failed;
+        private final int expected;
+        private final List<CaseOutcome> outcomes = new ArrayList<>();
+        private List<SubmissionTestResult> results = List.of();
+        private int passed;
+        private int failed;
+        private Integer score;
+
+        private void add(int position, boolean passedCase, SubmissionTestResult result) {
+            outcomes.add(new CaseOutcome(position, result));
+            if (passedCase) {
+                passed++;
+            } else {
+                failed++;
+            }
+        }
+
+        private List<Integer> getFailedPositions() {
+            return outcomes.stream()
+                    .filter(outcome -> outcome.position() >= 0 && !outcome.result().isPassed())
+                    .map(CaseOutcome::position)
+                    .toList();
+        }
+
+        /**
+         * Sorts structured results back into case order (shards interleave them) and computes the
+         * weighted share of passed cases.
+         */
+        private TestResult score(List<ChallengeTestCase> testCases) {
+            if (!testCases.isEmpty()) {
+                outcomes.sort(Comparator.comparingInt(CaseOutcome::position));
+            }
+            results = outcomes.stream().map(CaseOutcome::result).toList();
+
+            int totalWeight = testCases.isEmpty()
+                    ? results.size()
+                    : testCases.stream().mapToInt(ChallengeTestCase::getWeight).sum();
+            int passedWeight = results.stream()
+                    .filter(SubmissionTestResult::isPassed)
+                    .mapToInt(SubmissionTestResult::getWeight)
+                    .sum();
+            score = totalWeight > 0 ? passedWeight * 100 / totalWeight : null;
+            return this;
+        }
+    }
+
+    private record CaseOutcome(int position, SubmissionTestResult result) {
     }
 
     private Integer parseExecutionTime(String time) {
@@ -145,23 +503,6 @@ public class CodeExecutionService {
         }
     }
 
-    private void awardXP(Long userId, Challenge challenge) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException(userId));
-
-        int xpToAward = switch (challenge.getDifficulty()) {
-            case EASY -> 10;
-            case MEDIUM -> 25;
-            case HARD -> 50;
-        };
-
-        user.setXp(user.getXp() + xpToAward);
-        userRepository.save(user);
-
-        log.info("Awarded {} XP to user {} for solving challenge {}", xpToAward, userId, challenge.getId());
-    }
-
-
     private SubmissionResponse mapToResponse(Submission submission) {
         return SubmissionResponse.builder()
                 .id(submission.getId())
@@ -172,7 +513,22 @@ public class CodeExecutionService {
                 .stderr(submission.getStderr())
                 .executionTime(submission.getExecutionTime())
                 .memory(submission.getMemory())
+                .passedTests((int) submission.getTestResults().stream().filter(SubmissionTestResult::isPassed).count())
+                .totalTests(submission.getTestResults().size())
+                .score(submission.getScore())
+                .testResults(mapTestResults(submission.getTestResults()))
                 .createdAt(submission.getCreatedAt())
                 .build();
     }
+
+    private List<TestResultResponse> mapTestResults(List<SubmissionTestResult> results) {
+        return results.stream()
+                .map(result -> TestResultResponse.builder()
+                        .name(result.getName())
+                        .passed(result.isPassed())
+                        .message(result.getMessage())
+                        .weight(result.getWeight())
+                        .build())
+                .toList();
+    }
 }
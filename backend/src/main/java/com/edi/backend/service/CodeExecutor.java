@@ -1,6 +1,22 @@
 package com.edi.backend.service;
 
 import com.edi.backend.dto.CodeExecutionResult;
+
+import java.util.concurrent.CompletableFuture;
+
 public interface CodeExecutor {
     CodeExecutionResult execute(String sourceCode, String stdin);
+
+    /**
+     * Starts an execution without waiting for it. Executors that can be completed externally
+     * (e.g. by a Judge0 callback) override this so no thread is parked during the sandbox run;
+     * the default simply runs {@link #execute} on the calling thread.
+     */
+    default CompletableFuture<CodeExecutionResult> executeAsync(String sourceCode, String stdin) {
+        try {
+            return CompletableFuture.completedFuture(execute(sourceCode, stdin));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
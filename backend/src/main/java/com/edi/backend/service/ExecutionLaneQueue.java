@@ -0,0 +1,379 @@
+package com.edi.backend.service;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Work queue of the submission workers. Executions wait in one of two lanes: graded submissions
+ * and sample runs. When both lanes have work, up to gradedPerSample graded executions are taken
+ * for every sample run, so graded work goes first without starving samples. Within a lane every
+ * user has a FIFO of their own and users take turns, each turn taking up to the user's weight of
+ * executions, so one user queueing many runs only delays their own. The sample lane has its own
+ * capacity, so sample runs cannot fill the queue that graded submissions need.
+ *
+ * <p>Runnables handed to the executor that are not a {@link Task} go into the graded lane.
+ */
+class ExecutionLaneQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    enum Lane {
+        GRADED, SAMPLE;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * An execution attributed to a lane and a user.
+     */
+    static class Task implements Runnable {
+        private final Lane lane;
+        private final Long userId;
+        private final int weight;
+        private final Runnable work;
+
+        Task(Lane lane, Long userId, int weight, Runnable work) {
+            this.lane = lane;
+            this.userId = userId;
+            this.weight = Math.max(1, weight);
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            work.run();
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Map<Lane, LaneState> lanes = new EnumMap<>(Lane.class);
+    private final int capacity;
+    private final int gradedPerSample;
+    private int gradedStreak;
+    private int size;
+
+    ExecutionLaneQueue(int capacity, int sampleCapacity, int gradedPerSample) {
+        this.capacity = capacity;
+        this.gradedPerSample = Math.max(1, gradedPerSample);
+        lanes.put(Lane.GRADED, new LaneState(capacity));
+        lanes.put(Lane.SAMPLE, new LaneState(Math.min(capacity, sampleCapacity)));
+    }
+
+    int size(Lane lane) {
+        lock.lock();
+        try {
+            return lanes.get(lane).size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int remainingCapacity(Lane lane) {
+        lock.lock();
+        try {
+            return Math.min(capacity - size, lanes.get(lane).remainingCapacity());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable runnable) {
+        Task task = asTask(runnable);
+        lock.lock();
+        try {
+            return enqueue(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable runnable, long timeout, TimeUnit unit) throws InterruptedException {
+        Task task = asTask(runnable);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (!enqueue(task)) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(Runnable runnable) throws InterruptedException {
+        Task task = asTask(runnable);
+        lock.lockInterruptibly();
+        try {
+            while (!enqueue(task)) {
+                notFull.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            Lane lane = nextLane();
+            return lane == null ? null : lanes.get(lane).peek();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Task task)) {
+            return false;
+        }
+        lock.lock();
+        try {
+            if (!lanes.get(task.lane).remove(task)) {
+                return false;
+            }
+            size--;
+            notFull.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> target) {
+        return drainTo(target, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> target, int maxElements) {
+        lock.lock();
+        try {
+            int drained = 0;
+            while (drained < maxElements && size > 0) {
+                target.add(dequeue());
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A snapshot of the queued executions; removing through it is not supported.
+     */
+    @Override
+    public Iterator<Runnable> iterator() {
+        lock.lock();
+        try {
+            List<Runnable> snapshot = new ArrayList<>(size);
+            lanes.values().forEach(lane -> lane.queues.values().forEach(queue -> snapshot.addAll(queue.tasks)));
+            return List.copyOf(snapshot).iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean enqueue(Task task) {
+        LaneState lane = lanes.get(task.lane);
+        if (size >= capacity || lane.remainingCapacity() == 0) {
+            return false;
+        }
+        lane.add(task);
+        size++;
+        notEmpty.signal();
+        return true;
+    }
+
+    private Task dequeue() {
+        Lane lane = nextLane();
+        if (lane == null) {
+            return null;
+        }
+        gradedStreak = lane == Lane.GRADED ? gradedStreak + 1 : 0;
+        size--;
+        notFull.signal();
+        return lanes.get(lane).poll();
+    }
+
+    private Lane nextLane() {
+        boolean graded = lanes.get(Lane.GRADED).size > 0;
+        boolean sample = lanes.get(Lane.SAMPLE).size > 0;
+        if (graded && (!sample || gradedStreak < gradedPerSample)) {
+            return Lane.GRADED;
+        }
+        return sample ? Lane.SAMPLE : null;
+    }
+
+    private static Task asTask(Runnable runnable) {
+        return runnable instanceof Task task ? task : new Task(Lane.GRADED, 0L, 1, runnable);
+    }
+
+    /**
+     * One lane: a FIFO per user and the rotation of users waiting for their turn. The user whose
+     * turn it is stays current until their credit (weight) is spent or their FIFO runs dry.
+     */
+    private static class LaneState {
+        private final int capacity;
+        private final Map<Long, UserQueue> queues = new HashMap<>();
+        private final ArrayDeque<Long> rotation = new ArrayDeque<>();
+        private Long current;
+        private int credit;
+        private int size;
+
+        private LaneState(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private int remainingCapacity() {
+            return capacity - size;
+        }
+
+        private void add(Task task) {
+            UserQueue queue = queues.get(task.userId);
+            if (queue == null) {
+                queue = new UserQueue(task.weight);
+                queues.put(task.userId, queue);
+                rotation.add(task.userId);
+            }
+            queue.tasks.add(task);
+            size++;
+        }
+
+        private Task peek() {
+            Long user = current != null ? current : rotation.peek();
+            return user == null ? null : queues.get(user).tasks.peek();
+        }
+
+        private Task poll() {
+            if (current == null) {
+                current = rotation.poll();
+                if (current == null) {
+                    return null;
+                }
+                credit = queues.get(current).weight;
+            }
+
+            UserQueue queue = queues.get(current);
+            Task task = queue.tasks.poll();
+            size--;
+            credit--;
+            if (queue.tasks.isEmpty()) {
+                queues.remove(current);
+                current = null;
+            } else if (credit == 0) {
+                rotation.add(current);
+                current = null;
+            }
+            return task;
+        }
+
+        private boolean remove(Task task) {
+            UserQueue queue = queues.get(task.userId);
+            if (queue == null || !queue.tasks.remove(task)) {
+                return false;
+            }
+            size--;
+            if (queue.tasks.isEmpty()) {
+                queues.remove(task.userId);
+                if (task.userId.equals(current)) {
+                    current = null;
+                } else {
+                    rotation.remove(task.userId);
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class UserQueue {
+        private final ArrayDeque<Task> tasks = new ArrayDeque<>();
+        private final int weight;
+
+        private UserQueue(int weight) {
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.CodeExecutionResult;
+import com.edi.backend.entity.ExecutionResultCacheEntry;
+import com.edi.backend.repository.ExecutionResultCacheRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Content-addressed cache of execution results. The key is a SHA-256 of the challenge id and the
+ * normalized combined source, which already embeds the hidden tests, so editing a challenge's tests
+ * produces new keys on its own. Only deterministic outcomes (accepted runs and compile errors) are
+ * cached; time limits and sandbox errors always go back to the executor.
+ */
+@Service
+@Slf4j
+public class ExecutionResultCache {
+
+    private static final Set<Integer> CACHEABLE_STATUS_IDS = Set.of(3, 6);
+
+    private final ExecutionResultCacheRepository cacheRepository;
+    private final boolean enabled;
+    private final boolean persistent;
+    private final Duration ttl;
+    private final Cache<String, CachedResult> cache;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter persistentHitCounter;
+
+    public ExecutionResultCache(
+            ExecutionResultCacheRepository cacheRepository,
+            MeterRegistry meterRegistry,
+            @Value("${execution.cache.enabled:true}") boolean enabled,
+            @Value("${execution.cache.persistent:false}") boolean persistent,
+            @Value("${execution.cache.max-size:10000}") long maxSize,
+            @Value("${execution.cache.ttl:PT10M}") Duration ttl
+    ) {
+        this.cacheRepository = cacheRepository;
+        this.enabled = enabled;
+        this.persistent = persistent;
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "execution-results");
+        this.hitCounter = meterRegistry.counter("execution.cache.requests", "result", "hit");
+        this.missCounter = meterRegistry.counter("execution.cache.requests", "result", "miss");
+        this.persistentHitCounter = meterRegistry.counter("execution.cache.requests", "result", "persistent-hit");
+    }
+
+    public String keyFor(Long challengeId, String combinedCode) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(challengeId).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(normalize(combinedCode).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public Optional<CodeExecutionResult> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        CachedResult cached = cache.getIfPresent(key);
+        if (cached != null) {
+            hitCounter.increment();
+            return Optional.of(cached.result());
+        }
+
+        if (persistent) {
+            Optional<ExecutionResultCacheEntry> entry = cacheRepository.findById(key)
+                    .filter(e -> e.getCreatedAt().isAfter(LocalDateTime.now().minus(ttl)));
+            if (entry.isPresent()) {
+                persistentHitCounter.increment();
+                CodeExecutionResult result = toResult(entry.get());
+                cache.put(key, new CachedResult(entry.get().getChallengeId(), result));
+                return Optional.of(result);
+            }
+        }
+
+        missCounter.increment();
+        return Optional.empty();
+    }
+
+    public void put(String key, Long challengeId, CodeExecutionResult result) {
+        if (!enabled || result.getStatusId() == null || !CACHEABLE_STATUS_IDS.contains(result.getStatusId())) {
+            return;
+        }
+
+        cache.put(key, new CachedResult(challengeId, result));
+
+        if (persistent) {
+            try {
+                cacheRepository.save(toEntry(key, challengeId, result));
+            } catch (Exception e) {
+                log.warn("Failed to persist execution result cache entry for challenge {}", challengeId, e);
+            }
+        }
+    }
+
+    public void invalidateChallenge(Long challengeId) {
+        Set<String> keys = cache.asMap().entrySet().stream()
+                .filter(entry -> entry.getValue().challengeId().equals(challengeId))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        cache.invalidateAll(keys);
+
+        if (persistent) {
+            cacheRepository.deleteByChallengeId(challengeId);
+        }
+
+        log.info("Invalidated {} cached execution results for challenge {}", keys.size(), challengeId);
+    }
+
+    @Scheduled(fixedDelayString = "${execution.cache.cleanup-interval-ms:600000}")
+    public void purgeExpiredEntries() {
+        if (enabled && persistent) {
+            int removed = cacheRepository.deleteOlderThan(LocalDateTime.now().minus(ttl));
+            if (removed > 0) {
+                log.info("Purged {} expired execution result cache rows", removed);
+            }
+        }
+    }
+
+    /**
+     * Normalizes line endings so that the same solution saved on Windows and elsewhere shares a
+     * cache entry. Nothing else is touched: trailing whitespace can be part of the program, for
+     * example inside a multi-line template literal it prints.
+     */
+    private String normalize(String code) {
+        return code.replace("\r\n", "\n");
+    }
+
+    private CodeExecutionResult toResult(ExecutionResultCacheEntry entry) {
+        return CodeExecutionResult.builder()
+                .statusId(entry.getStatusId())
+                .stdout(entry.getStdout())
+                .stderr(entry.getStderr())
+                .compileOutput(entry.getCompileOutput())
+                .time(entry.getTime())
+                .memory(entry.getMemory())
+                .build();
+    }
+
+    private ExecutionResultCacheEntry toEntry(String key, Long challengeId, CodeExecutionResult result) {
+        return ExecutionResultCacheEntry.builder()
+                .codeHash(key)
+                .challengeId(challengeId)
+                .statusId(result.getStatusId())
+                .stdout(result.getStdout())
+                .stderr(result.getStderr())
+                .compileOutput(result.getCompileOutput())
+                .time(result.getTime())
+                .memory(result.getMemory())
+                .build();
+    }
+
+    private record CachedResult(Long challengeId, CodeExecutionResult result) {
+    }
+}
@@ -0,0 +1,308 @@
+package com.edi.backend.service;
+
+import com.edi.backend.entity.Challenge;
+import com.edi.backend.entity.ChallengeTestCase;
+import com.edi.backend.entity.TestCaseFailureStat;
+import com.edi.backend.repository.TestCaseFailureStatRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Rewrites a challenge's hidden tests so execution stops at the first failing case. The test blob
+ * is split into top-level statements; declarations (helpers, shared fixtures) are setup and stay
+ * first in their original order, every other statement is a test case. Cases are ordered by how
+ * often they failed for past submissions, so a wrong answer usually fails on the first case run.
+ * The id of the failing case is reported on a trailing marker line that is stripped from stdout
+ * before it is stored. User code shares stdout with the marker, so only the final line is taken as
+ * the marker and only an id of a case planned from the challenge's tests is counted; anything else
+ * could grow the counters without bound or reorder the cases for everyone. Failure counters live in memory and are flushed to test_case_failure_stats
+ * periodically. Enabled with execution.fail-fast.enabled=true.
+ */
+@Service
+@Slf4j
+public class FailFastTestPlanner {
+
+    private static final String FAILED_CASE_MARKER = "#codifai-failed-case ";
+    private static final Pattern DECLARATION =
+            Pattern.compile("^(?:async\\s+)?(?:function|const|let|var|class)\\b");
+    private static final List<String> CONTINUATION_PREFIXES =
+            List.of("catch", "finally", "else", ".", "?", ":", ")", "]", "}", "&&", "||", "+");
+    private static final List<String> CONTINUATION_SUFFIXES = List.of("=", ",", "(", "+", "&&", "||", "?", ":");
+
+    private final TestCaseFailureStatRepository failureStatRepository;
+    private final boolean enabled;
+    private final Map<Long, Map<String, AtomicLong>> failureCounts = new ConcurrentHashMap<>();
+    private final Map<CaseKey, Long> unflushedFailures = new ConcurrentHashMap<>();
+
+    public FailFastTestPlanner(
+            TestCaseFailureStatRepository failureStatRepository,
+            @Value("${execution.fail-fast.enabled:false}") boolean enabled
+    ) {
+        this.failureStatRepository = failureStatRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the hidden tests to append to the user's code: the original blob when fail-fast is
+     * off or the blob cannot be split into more than one case, otherwise the reordered, guarded cases.
+     */
+    public String prepareHiddenTests(Challenge challenge) {
+        String hiddenTests = challenge.getHiddenTests();
+        if (!enabled) {
+            return hiddenTests;
+        }
+
+        List<String> setup = new ArrayList<>();
+        List<TestCase> cases = new ArrayList<>();
+        split(hiddenTests, setup, cases);
+        if (cases.size() < 2) {
+            return hiddenTests;
+        }
+
+        cases = orderByFailures(challenge.getId(), cases, TestCase::id);
+
+        StringBuilder program = new StringBuilder("""
+                const __failFast = { failed: null, current: null, log: console.log };
+                console.log = (...args) => {
+                  __failFast.log(...args);
+                  if (__failFast.failed === null && String(args[0]).trim().startsWith('FAIL')) {
+                    __failFast.failed = __failFast.current;
+                  }
+                };
+                """);
+        setup.forEach(statement -> program.append(statement).append('\n'));
+        for (TestCase testCase : cases) {
+            program.append("if (__failFast.failed === null) {\n")
+                    .append("__failFast.current = '").append(testCase.id()).append("';\n")
+                    .append(testCase.source()).append('\n')
+                    .append("}\n");
+        }
+        program.append("if (__failFast.failed !== null) __failFast.log('")
+                .append(FAILED_CASE_MARKER).append("' + __failFast.failed);\n");
+        return program.toString();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cases sorted by recorded failures, most frequent first; ties keep their order.
+     */
+    public <T> List<T> orderByFailures(Long challengeId, List<T> cases, Function<T, String> caseId) {
+        Map<String, AtomicLong> counts = countsFor(challengeId);
+        List<T> ordered = new ArrayList<>(cases);
+        ordered.sort(Comparator.comparingLong((T testCase) -> failuresOf(counts, caseId.apply(testCase))).reversed());
+        return ordered;
+    }
+
+    static String caseIdOf(ChallengeTestCase testCase) {
+        return "tc-" + testCase.getId();
+    }
+
+    public void recordFailure(Long challengeId, String caseId) {
+        if (!enabled) {
+            return;
+        }
+        countsFor(challengeId).computeIfAbsent(caseId, id -> new AtomicLong()).incrementAndGet();
+        unflushedFailures.merge(new CaseKey(challengeId, caseId), 1L, Long::sum);
+    }
+
+    /**
+     * Counts the failing case reported by a fail-fast run and returns stdout without the marker line.
+     * Only the last line of output can be the marker, and its id must be one of the challenge's
+     * planned cases; marker lines printed earlier by user code stay in stdout and count for nothing.
+     */
+    public String recordOutcome(Challenge challenge, String stdout) {
+        if (stdout == null || !stdout.contains(FAILED_CASE_MARKER)) {
+            return stdout;
+        }
+
+        String body = stdout.endsWith("\n") ? stdout.substring(0, stdout.length() - 1) : stdout;
+        int lastLineStart = body.lastIndexOf('\n') + 1;
+        String lastLine = body.substring(lastLineStart);
+        if (!lastLine.startsWith(FAILED_CASE_MARKER)) {
+            return stdout;
+        }
+
+        String caseId = lastLine.substring(FAILED_CASE_MARKER.length()).trim();
+        if (plannedCaseIds(challenge).contains(caseId)) {
+            recordFailure(challenge.getId(), caseId);
+        } else {
+            log.debug("Ignoring fail-fast marker with unknown case id for challenge {}", challenge.getId());
+        }
+        return body.substring(0, lastLineStart);
+    }
+
+    public void invalidateChallenge(Long challengeId) {
+        failureCounts.remove(challengeId);
+        unflushedFailures.keySet().removeIf(key -> key.challengeId().equals(challengeId));
+        failureStatRepository.deleteByChallengeId(challengeId);
+    }
+
+    @Scheduled(fixedDelayString = "${execution.fail-fast.flush-interval-ms:30000}")
+    public void flushFailureCounts() {
+        for (CaseKey key : List.copyOf(unflushedFailures.keySet())) {
+            Long delta = unflushedFailures.remove(key);
+            if (delta == null) {
+                continue;
+            }
+            try {
+                if (failureStatRepository.incrementFailures(key.challengeId(), key.caseId(), delta) == 0) {
+                    failureStatRepository.save(TestCaseFailureStat.builder()
+                            .challengeId(key.challengeId())
+                            .caseId(key.caseId())
+                            .failures(delta)
+                            .build());
+                }
+            } catch (Exception e) {
+                log.warn("Failed to flush failure count for case {} of challenge {}", key.caseId(), key.challengeId(), e);
+                unflushedFailures.merge(key, delta, Long::sum);
+            }
+        }
+    }
+
+    private Map<String, AtomicLong> countsFor(Long challengeId) {
+        return failureCounts.computeIfAbsent(challengeId, id -> failureStatRepository.findByChallengeId(id).stream()
+                .collect(Collectors.toConcurrentMap(
+                        TestCaseFailureStat::getCaseId,
+                        stat -> new AtomicLong(stat.getFailures()))));
+    }
+
+    private long failuresOf(Map<String, AtomicLong> counts, String caseId) {
+        AtomicLong count = counts.get(caseId);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Ids of the guarded cases prepareHiddenTests plans for the challenge; empty when its tests
+     * run unchanged and no marker is ever printed.
+     */
+    private Set<String> plannedCaseIds(Challenge challenge) {
+        if (!enabled || challenge.getHiddenTests() == null) {
+            return Set.of();
+        }
+        List<TestCase> cases = new ArrayList<>();
+        split(challenge.getHiddenTests(), new ArrayList<>(), cases);
+        return cases.size() < 2 ? Set.of() : cases.stream().map(TestCase::id).collect(Collectors.toSet());
+    }
+
+    private void split(String hiddenTests, List<String> setup, List<TestCase> cases) {
+        for (String statement : splitStatements(hiddenTests)) {
+            if (DECLARATION.matcher(statement).find()) {
+                setup.add(statement);
+            } else {
+                cases.add(new TestCase(caseId(statement), statement));
+            }
+        }
+    }
+
+    private String caseId(String statement) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(statement.strip().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Splits JavaScript into top-level statements, one per line group that ends at bracket depth
+     * zero outside strings and comments. This is a scanner, not a parser: if the blob does not end
+     * balanced, it is returned as a single statement and runs unchanged.
+     */
+    static List<String> splitStatements(String source) {
+        List<String> statements = new ArrayList<>();
+        String[] lines = source.replace("\r\n", "\n").split("\n");
+        StringBuilder current = new StringBuilder();
+        int depth = 0;
+        char quote = 0;
+        boolean blockComment = false;
+
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            for (int j = 0; j < line.length(); j++) {
+                char c = line.charAt(j);
+                char next = j + 1 < line.length() ? line.charAt(j + 1) : 0;
+                if (blockComment) {
+                    if (c == '*' && next == '/') {
+                        blockComment = false;
+                        j++;
+                    }
+                } else if (quote != 0) {
+                    if (c == '\\') {
+                        j++;
+                    } else if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '/' && next == '/') {
+                    break;
+                } else if (c == '/' && next == '*') {
+                    blockComment = true;
+                    j++;
+                } else if (c == '\'' || c == '"' || c == '`') {
+                    quote = c;
+                } else if (c == '(' || c == '[' || c == '{') {
+                    depth++;
+                } else if (c == ')' || c == ']' || c == '}') {
+                    depth--;
+                }
+            }
+            // Only template literals may span lines
+            if (quote == '\'' || quote == '"') {
+                quote = 0;
+            }
+            current.append(line).append('\n');
+
+            if (depth == 0 && quote == 0 && !blockComment && !current.toString().isBlank()
+                    && !continuesOnNextLine(current.toString().strip(), lines, i + 1)) {
+                statements.add(current.toString().strip());
+                current.setLength(0);
+            }
+        }
+
+        if (depth != 0 || quote != 0 || blockComment) {
+            return List.of(source);
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().strip());
+        }
+        return statements;
+    }
+
+    private static boolean continuesOnNextLine(String statement, String[] lines, int nextIndex) {
+        if (CONTINUATION_SUFFIXES.stream().anyMatch(statement::endsWith)) {
+            return true;
+        }
+        for (int i = nextIndex; i < lines.length; i++) {
+            String next = lines[i].strip();
+            if (!next.isEmpty()) {
+                return CONTINUATION_PREFIXES.stream().anyMatch(next::startsWith);
+            }
+        }
+        return false;
+    }
+
+    private record TestCase(String id, String source) {
+    }
+
+    private record CaseKey(Long challengeId, String caseId) {
+    }
+}
@@ -1,8 +1,10 @@
 package com.edi.backend.service;
 
 import com.edi.backend.dto.ChallengeGenerationRequest;
+import com.edi.backend.dto.TestCaseDefinition;
 import com.edi.backend.entity.Difficulty;
 import com.edi.backend.exception.ChallengeGenerationException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -85,7 +87,8 @@ public class GeminiService implements AiChallengeGenerator {
           "  \"starterCode\": \"JavaScript function template ONLY. Must be in this exact format with function name, parameters, and a comment placeholder. Example: function filterHeroesByPower(heroes, requiredPower) { // Your code here }\",\n" +
           "  \"hiddenTests\": \"Hidden unit tests in JavaScript. Each test MUST output exactly 'PASS' or 'FAIL [message]' to stdout using console.log. Use try-catch to wrap test logic and output FAIL on error.\",\n" +
           "  \"sampleTests\": \"Sample test cases visible to the user\",\n" +
-          "  \"tags\": [\"tag1\", \"tag2\"] - relevant programming concepts\n" +
+          "  \"tags\": [\"tag1\", \"tag2\"] - relevant programming concepts,\n" +
+          "  \"testCases\": [{\"name\": \"short label\", \"input\": \"JavaScript call expression, e.g. functionName(1, [2, 3])\", \"expected\": \"JavaScript literal of the expected return value, e.g. 6\", \"weight\": 1}] - the same checks as hiddenTests in structured form\n" +
           "}\n\n" +
           "CRITICAL starterCode format:\n" +
           "function functionName(param1, param2) {\n" +
@@ -143,6 +146,9 @@ public class GeminiService implements AiChallengeGenerator {
                     .hiddenTests(node.path("hiddenTests").asText())
                     .sampleTests(node.path("sampleTests").asText())
                     .tags(objectMapper.convertValue(node.path("tags"), List.class))
+                    .testCases(node.path("testCases").isArray()
+                            ? objectMapper.convertValue(node.path("testCases"), new TypeReference<List<TestCaseDefinition>>() {})
+                            : null)
                     .build();
         } catch (Exception e) {
             log.error("Error parsing generated challenge JSON", e);
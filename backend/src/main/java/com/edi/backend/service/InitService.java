@@ -22,6 +22,7 @@ public class InitService implements CommandLineRunner {
     private final ChallengeRepository challengeRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final LeaderboardService leaderboardService;
 
     @Override
     public void run(String... args) {
@@ -53,7 +54,7 @@ public class InitService implements CommandLineRunner {
                 .xp(0)
                 .build();
 
-        userRepository.save(adminUser);
+        leaderboardService.addUser(userRepository.save(adminUser));
         log.info("Created admin user: admin@admin.admin");
     }
 
@@ -0,0 +1,232 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.CodeExecutionResult;
+import com.edi.backend.dto.Judge0BatchResultResponse;
+import com.edi.backend.dto.Judge0BatchSubmissionRequest;
+import com.edi.backend.dto.Judge0ResultResponse;
+import com.edi.backend.dto.Judge0SubmissionRequest;
+import com.edi.backend.dto.Judge0SubmissionResponse;
+import com.edi.backend.exception.CodeExecutionException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collects submissions for a short window (or until the batch is full) and sends them through
+ * Judge0's /submissions/batch endpoint, then polls all outstanding tokens with a single request.
+ * Enabled with judge0.mode=batch.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "judge0.mode", havingValue = "batch")
+@Slf4j
+public class Judge0BatchExecutor implements CodeExecutor {
+
+    private static final String RESULT_FIELDS = "token,status,stdout,stderr,compile_output,time,memory,exit_code";
+
+    private final Judge0Service judge0Service;
+    private final WebClient webClient;
+    private final Integer timeout;
+    private final int maxBatchSize;
+    private final LinkedBlockingQueue<PendingRun> queued = new LinkedBlockingQueue<>();
+    private final Map<String, PendingRun> inFlight = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+    private final DistributionSummary batchSizeSummary;
+
+    public Judge0BatchExecutor(
+            Judge0Service judge0Service,
+            Judge0ConnectionPool connectionPool,
+            MeterRegistry meterRegistry,
+            @Value("${judge0.base-url}") String baseUrl,
+            @Value("${judge0.timeout}") Integer timeout,
+            @Value("${judge0.batch.window-ms:50}") long windowMs,
+            @Value("${judge0.batch.max-size:20}") int maxBatchSize,
+            @Value("${judge0.batch.poll-interval-ms:250}") long pollIntervalMs
+    ) {
+        this.judge0Service = judge0Service;
+        this.webClient = connectionPool.webClient(baseUrl);
+        this.timeout = timeout;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizeSummary = DistributionSummary.builder("judge0.batch.size")
+                .description("Submissions sent per Judge0 batch request")
+                .register(meterRegistry);
+        meterRegistry.gauge("judge0.batch.in-flight", inFlight, Map::size);
+
+        this.scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "judge0-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, windowMs, windowMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public CodeExecutionResult execute(String sourceCode, String stdin) {
+        PendingRun run = new PendingRun(
+                judge0Service.buildSubmissionRequest(sourceCode, stdin),
+                System.currentTimeMillis() + timeout
+        );
+        queued.add(run);
+
+        // Do not wait for the window to elapse when a full batch is already available
+        if (queued.size() >= maxBatchSize && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+
+        try {
+            return run.result.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new CodeExecutionException("Judge0 batch execution timed out after " + timeout + "ms");
+        } catch (ExecutionException e) {
+            throw new CodeExecutionException("Failed to execute code via Judge0 batch", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CodeExecutionException("Interrupted while waiting for Judge0 batch result", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void flushQuietly() {
+        flushScheduled.set(false);
+        try {
+            while (!queued.isEmpty()) {
+                List<PendingRun> batch = new ArrayList<>(maxBatchSize);
+                queued.drainTo(batch, maxBatchSize);
+                if (!batch.isEmpty()) {
+                    submitBatch(batch);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Unexpected error while flushing Judge0 batch", e);
+        }
+    }
+
+    private void submitBatch(List<PendingRun> batch) {
+        log.info("Submitting batch of {} submissions to Judge0", batch.size());
+        batchSizeSummary.record(batch.size());
+
+        Judge0SubmissionResponse[] tokens;
+        try {
+            tokens = webClient.post()
+                    .uri("/submissions/batch?base64_encoded=true")
+                    .bodyValue(new Judge0BatchSubmissionRequest(batch.stream().map(run -> run.request).toList()))
+                    .retrieve()
+                    .bodyToMono(Judge0SubmissionResponse[].class)
+                    .block(Duration.ofMillis(timeout));
+        } catch (Exception e) {
+            log.error("Judge0 batch submission failed", e);
+            batch.forEach(run -> run.result.completeExceptionally(e));
+            return;
+        }
+
+        if (tokens == null || tokens.length != batch.size()) {
+            CodeExecutionException error = new CodeExecutionException("Judge0 batch submission returned unexpected response");
+            batch.forEach(run -> run.result.completeExceptionally(error));
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingRun run = batch.get(i);
+            String token = tokens[i].getToken();
+            if (token == null) {
+                run.result.completeExceptionally(new CodeExecutionException("Judge0 rejected batch entry"));
+            } else {
+                inFlight.put(token, run);
+            }
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            expireStaleRuns();
+
+            List<String> tokens = new ArrayList<>(inFlight.keySet());
+            for (int from = 0; from < tokens.size(); from += maxBatchSize) {
+                pollTokens(tokens.subList(from, Math.min(from + maxBatchSize, tokens.size())));
+            }
+        } catch (Exception e) {
+            log.error("Unexpected error while polling Judge0 batch results", e);
+        }
+    }
+
+    private void pollTokens(List<String> tokens) {
+        Judge0BatchResultResponse response;
+        try {
+            response = webClient.get()
+                    .uri(uriBuilder -> uriBuilder
+                            .path("/submissions/batch")
+                            .queryParam("tokens", String.join(",", tokens))
+                            .queryParam("base64_encoded", "true")
+                            .queryParam("fields", RESULT_FIELDS)
+                            .build())
+                    .retrieve()
+                    .bodyToMono(Judge0BatchResultResponse.class)
+                    .block(Duration.ofMillis(timeout));
+        } catch (Exception e) {
+            log.warn("Polling {} Judge0 tokens failed, retrying on next tick", tokens.size(), e);
+            return;
+        }
+
+        if (response == null || response.getSubmissions() == null) {
+            return;
+        }
+
+        for (Judge0ResultResponse result : response.getSubmissions()) {
+            // Status 1 (In Queue) and 2 (Processing) are not final yet
+            if (result == null || result.getStatus() == null || result.getStatus().getId() <= 2) {
+                continue;
+            }
+
+            PendingRun run = inFlight.remove(result.getToken());
+            if (run != null) {
+                judge0Service.decodeBase64Fields(result);
+                run.result.complete(judge0Service.mapToCodeExecutionResult(result));
+            }
+        }
+    }
+
+    private void expireStaleRuns() {
+        long now = System.currentTimeMillis();
+        inFlight.entrySet().removeIf(entry -> {
+            PendingRun run = entry.getValue();
+            return run.result.isDone() || run.deadline < now;
+        });
+    }
+
+    private static class PendingRun {
+        private final Judge0SubmissionRequest request;
+        private final long deadline;
+        private final CompletableFuture<CodeExecutionResult> result = new CompletableFuture<>();
+
+        private PendingRun(Judge0SubmissionRequest request, long deadline) {
+            this.request = request;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.CodeExecutionResult;
+import com.edi.backend.dto.Judge0ResultResponse;
+import com.edi.backend.dto.Judge0SubmissionRequest;
+import com.edi.backend.dto.Judge0SubmissionResponse;
+import com.edi.backend.exception.CodeExecutionException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Submits to Judge0 with wait=false and a callback_url, and completes the caller's future when
+ * Judge0 PUTs the result back. Each run gets its own id in the callback URL, so a callback that
+ * races the token response still finds its run. Judge0 cannot authenticate, so the URL path also
+ * carries an HMAC of the run id keyed by judge0.callback.secret: the secret itself never leaves the
+ * backend and a URL that ends up in an access log only vouches for its own run. Pending runs live
+ * in this instance's memory, so judge0.callback.base-url must reach the instance that submitted the
+ * run; a callback routed to another instance is dropped as stale and the run falls back to polling.
+ * Runs whose callback never arrives are polled by token without blocking the poller thread, and
+ * runs past judge0.timeout fail. Enabled with judge0.mode=callback, which requires
+ * judge0.callback.secret.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "judge0.mode", havingValue = "callback")
+@Slf4j
+public class Judge0CallbackExecutor implements CodeExecutor {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String RESULT_FIELDS = "token,status,stdout,stderr,compile_output,time,memory,exit_code";
+
+    private final Judge0Service judge0Service;
+    private final WebClient webClient;
+    private final Integer timeout;
+    private final String callbackUrl;
+    private final SecretKeySpec callbackKey;
+    private final long pollAfterMs;
+    private final Map<String, PendingRun> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final Counter callbackCounter;
+    private final Counter staleCallbackCounter;
+    private final Counter pollFallbackCounter;
+
+    public Judge0CallbackExecutor(
+            Judge0Service judge0Service,
+            Judge0ConnectionPool connectionPool,
+            MeterRegistry meterRegistry,
+            @Value("${judge0.base-url}") String baseUrl,
+            @Value("${judge0.timeout}") Integer timeout,
+            @Value("${judge0.callback.base-url:http://localhost:${server.port:8080}}") String callbackBaseUrl,
+            @Value("${judge0.callback.secret:}") String callbackSecret,
+            @Value("${judge0.callback.poll-after-ms:5000}") long pollAfterMs,
+            @Value("${judge0.callback.poll-interval-ms:1000}") long pollIntervalMs
+    ) {
+        this.judge0Service = judge0Service;
+        this.webClient = connectionPool.webClient(baseUrl);
+        this.timeout = timeout;
+        this.callbackUrl = callbackBaseUrl + "/api/internal/judge0/callback";
+        if (callbackSecret.isBlank()) {
+            throw new IllegalStateException("judge0.callback.secret must be set when judge0.mode=callback");
+        }
+        this.callbackKey = new SecretKeySpec(callbackSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.pollAfterMs = pollAfterMs;
+
+        meterRegistry.gauge("judge0.callback.pending", pending, Map::size);
+        this.callbackCounter = meterRegistry.counter("judge0.callback.received");
+        this.staleCallbackCounter = meterRegistry.counter("judge0.callback.stale");
+        this.pollFallbackCounter = meterRegistry.counter("judge0.callback.poll-fallback");
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "judge0-callback-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollOverdueRuns, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public CodeExecutionResult execute(String sourceCode, String stdin) {
+        try {
+            return executeAsync(sourceCode, stdin).get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new CodeExecutionException("Judge0 callback not received within " + timeout + "ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CodeExecutionException cause) {
+                throw cause;
+            }
+            throw new CodeExecutionException("Failed to execute code via Judge0", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CodeExecutionException("Interrupted while waiting for Judge0 callback", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<CodeExecutionResult> executeAsync(String sourceCode, String stdin) {
+        String runId = UUID.randomUUID().toString();
+        PendingRun run = new PendingRun(System.currentTimeMillis());
+        pending.put(runId, run);
+
+        Judge0SubmissionRequest request = judge0Service.buildSubmissionRequest(sourceCode, stdin);
+        request.setCallbackUrl(callbackUrl + "/" + runId + "/" + sign(runId));
+
+        webClient.post()
+                .uri("/submissions?base64_encoded=true&wait=false")
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(Judge0SubmissionResponse.class)
+                .timeout(Duration.ofMillis(timeout))
+                .subscribe(
+                        response -> run.token = response.getToken(),
+                        error -> {
+                            pending.remove(runId);
+                            run.result.completeExceptionally(
+                                    new CodeExecutionException("Failed to submit code to Judge0", error));
+                        }
+                );
+
+        return run.result;
+    }
+
+    /**
+     * Checks a callback's signature in constant time.
+     */
+    public boolean isValidSignature(String runId, String signature) {
+        return MessageDigest.isEqual(
+                sign(runId).getBytes(StandardCharsets.UTF_8),
+                signature.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Completes the run the callback belongs to. Callbacks for runs that already finished (late,
+     * duplicated, or beaten by the polling fallback) are counted and ignored.
+     */
+    public void handleCallback(String runId, Judge0ResultResponse response) {
+        callbackCounter.increment();
+
+        PendingRun run = runId != null ? pending.remove(runId) : null;
+        if (run == null) {
+            staleCallbackCounter.increment();
+            log.debug("Ignoring callback for unknown or finished run {} (token {})", runId, response.getToken());
+            return;
+        }
+
+        complete(run, response);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void complete(PendingRun run, Judge0ResultResponse response) {
+        judge0Service.decodeBase64Fields(response);
+        run.result.complete(judge0Service.mapToCodeExecutionResult(response));
+    }
+
+    private void pollOverdueRuns() {
+        long now = System.currentTimeMillis();
+
+        pending.forEach((runId, run) -> {
+            if (run.submittedAt + timeout < now) {
+                if (pending.remove(runId, run)) {
+                    run.result.completeExceptionally(
+                            new CodeExecutionException("Judge0 callback not received within " + timeout + "ms"));
+                }
+                return;
+            }
+
+            if (run.token != null && run.submittedAt + pollAfterMs < now && !run.polling) {
+                pollRun(runId, run);
+            }
+        });
+    }
+
+    /**
+     * Polls one run asynchronously; the run is not polled again until this request finishes, so a
+     * slow Judge0 cannot pile up requests or hold up the other runs.
+     */
+    private void pollRun(String runId, PendingRun run) {
+        run.polling = true;
+        webClient.get()
+                .uri("/submissions/{token}?base64_encoded=true&fields={fields}", run.token, RESULT_FIELDS)
+                .retrieve()
+                .bodyToMono(Judge0ResultResponse.class)
+                .timeout(Duration.ofMillis(timeout))
+                .doFinally(signal -> run.polling = false)
+                .subscribe(
+                        response -> completePolled(runId, run, response),
+                        error -> log.warn("Polling fallback for Judge0 token {} failed", run.token, error)
+                );
+    }
+
+    private void completePolled(String runId, PendingRun run, Judge0ResultResponse response) {
+        // Status 1 (In Queue) and 2 (Processing) are not final yet
+        if (response.getStatus() == null || response.getStatus().getId() <= 2) {
+            return;
+        }
+
+        if (pending.remove(runId, run)) {
+            pollFallbackCounter.increment();
+            log.info("Callback for Judge0 token {} missing, completed by polling", run.token);
+            complete(run, response);
+        }
+    }
+
+    private String sign(String runId) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(callbackKey);
+            byte[] signature = mac.doFinal(runId.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign Judge0 callback", e);
+        }
+    }
+
+    private static class PendingRun {
+        private final long submittedAt;
+        private final CompletableFuture<CodeExecutionResult> result = new CompletableFuture<>();
+        private volatile String token;
+        private volatile boolean polling;
+
+        private PendingRun(long submittedAt) {
+            this.submittedAt = submittedAt;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.edi.backend.service;
+
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The HTTP connection pool shared by every Judge0 client. Sized and timed separately from the
+ * default WebClient pool (used for Gemini) through judge0.pool.*: a bounded number of
+ * connections, a bounded queue of requests waiting for one with an acquire timeout, and idle and
+ * lifetime limits enforced by a background evictor. Reactor Netty publishes the pool's meters under
+ * reactor.netty.connection.provider.* with name "judge0": active, idle and pending connections and
+ * the time spent waiting for one, which tells pool starvation apart from a slow sandbox.
+ *
+ * <p>Before the application reports ready, each Judge0 server gets judge0.pool.warm-up-connections
+ * concurrent GET /about requests, so the first submissions find open connections.
+ */
+@Service
+@Slf4j
+public class Judge0ConnectionPool {
+
+    private static final String POOL_NAME = "judge0";
+
+    private final ConnectionProvider connectionProvider;
+    private final ReactorClientHttpConnector connector;
+    private final WebClient.Builder webClientBuilder;
+    private final List<String> serverUrls;
+    private final int warmUpConnections;
+    private final Duration warmUpTimeout;
+
+    public Judge0ConnectionPool(
+            WebClient.Builder webClientBuilder,
+            @Value("${judge0.nodes:${judge0.base-url}}") List<String> serverUrls,
+            @Value("${judge0.pool.max-connections:100}") int maxConnections,
+            @Value("${judge0.pool.max-pending-acquires:500}") int maxPendingAcquires,
+            @Value("${judge0.pool.acquire-timeout-ms:5000}") long acquireTimeoutMs,
+            @Value("${judge0.pool.connect-timeout-ms:2000}") int connectTimeoutMs,
+            @Value("${judge0.pool.max-idle-time-ms:30000}") long maxIdleTimeMs,
+            @Value("${judge0.pool.max-life-time-ms:300000}") long maxLifeTimeMs,
+            @Value("${judge0.pool.evict-interval-ms:15000}") long evictIntervalMs,
+            @Value("${judge0.pool.warm-up-connections:4}") int warmUpConnections,
+            @Value("${judge0.pool.warm-up-timeout-ms:5000}") long warmUpTimeoutMs
+    ) {
+        this.connectionProvider = ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxPendingAcquires)
+                .pendingAcquireTimeout(Duration.ofMillis(acquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeTimeMs))
+                .evictInBackground(Duration.ofMillis(evictIntervalMs))
+                .metrics(true)
+                .build();
+        this.connector = new ReactorClientHttpConnector(HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .keepAlive(true));
+        this.webClientBuilder = webClientBuilder;
+        this.serverUrls = serverUrls.stream()
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .distinct()
+                .toList();
+        this.warmUpConnections = warmUpConnections;
+        this.warmUpTimeout = Duration.ofMillis(warmUpTimeoutMs);
+    }
+
+    /**
+     * A WebClient for one Judge0 server that draws its connections from this pool.
+     */
+    public WebClient webClient(String baseUrl) {
+        return webClientBuilder.clone()
+                .clientConnector(connector)
+                .baseUrl(baseUrl)
+                .build();
+    }
+
+    /**
+     * Runs on ApplicationStartedEvent, which precedes readiness, so traffic is only accepted once
+     * the pool is warm. A Judge0 server that is down only logs a warning.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void warmUp() {
+        if (warmUpConnections <= 0) {
+            return;
+        }
+        for (String url : serverUrls) {
+            WebClient client = webClient(url);
+            try {
+                Long opened = Flux.range(0, warmUpConnections)
+                        .flatMap(i -> client.get()
+                                .uri("/about")
+                                .retrieve()
+                                .toBodilessEntity()
+                                .onErrorResume(e -> Mono.empty()))
+                        .count()
+                        .block(warmUpTimeout);
+                log.info("Warmed up {} of {} Judge0 connections to {}", opened, warmUpConnections, url);
+            } catch (Exception e) {
+                log.warn("Judge0 warm-up against {} did not finish: {}", url, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connectionProvider.disposeLater().block(Duration.ofSeconds(5));
+    }
+}
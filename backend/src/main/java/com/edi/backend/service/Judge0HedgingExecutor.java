@@ -0,0 +1,218 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.CodeExecutionResult;
+import com.edi.backend.dto.Judge0ResultResponse;
+import com.edi.backend.dto.Judge0SubmissionRequest;
+import com.edi.backend.exception.CodeExecutionException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cuts Judge0 tail latency by hedging: a run that has not finished within the observed p95 latency
+ * is sent again to the next server in judge0.nodes, and whichever answers first wins; the other
+ * request is cancelled (Judge0 still finishes that run, its result is ignored). The p95 comes from
+ * the latency of the original requests of the last judge0.hedge.window-size runs, not of the
+ * winners, so successful hedges do not drag it down; an original cut short by a winning hedge counts
+ * with the time it had run so far. Hedging needs at least two servers. Hedges draw on a global budget that earns
+ * judge0.hedge.budget-ratio of a hedge per run, so hedging adds at most that share of extra load
+ * and cannot amplify an overload. Enabled with judge0.mode=hedged.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "judge0.mode", havingValue = "hedged")
+@Slf4j
+public class Judge0HedgingExecutor implements CodeExecutor {
+
+    private static final int MIN_SAMPLES = 20;
+
+    private final Judge0Service judge0Service;
+    private final List<WebClient> servers;
+    private final List<String> serverUrls;
+    private final Integer timeout;
+    private final long initialDelayMs;
+    private final long minDelayMs;
+    private final double budgetRatio;
+    private final double maxBudget;
+    private final long[] latencyWindow;
+    private final AtomicInteger nextServer = new AtomicInteger();
+    private final Counter requestCounter;
+    private final Counter hedgeCounter;
+    private final Counter hedgeWinCounter;
+    private final Counter budgetExhaustedCounter;
+    private int windowPosition;
+    private int windowSize;
+    private long hedgeDelayMs;
+    private double budget;
+
+    public Judge0HedgingExecutor(
+            Judge0Service judge0Service,
+            Judge0ConnectionPool connectionPool,
+            MeterRegistry meterRegistry,
+            @Value("${judge0.nodes:${judge0.base-url}}") List<String> nodeUrls,
+            @Value("${judge0.timeout}") Integer timeout,
+            @Value("${judge0.hedge.initial-delay-ms:2000}") long initialDelayMs,
+            @Value("${judge0.hedge.min-delay-ms:50}") long minDelayMs,
+            @Value("${judge0.hedge.window-size:500}") int windowSize,
+            @Value("${judge0.hedge.budget-ratio:0.05}") double budgetRatio,
+            @Value("${judge0.hedge.max-burst:10}") double maxBurst
+    ) {
+        this.judge0Service = judge0Service;
+        this.serverUrls = nodeUrls.stream()
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .distinct()
+                .toList();
+        this.servers = serverUrls.stream().map(connectionPool::webClient).toList();
+        this.timeout = timeout;
+        this.initialDelayMs = initialDelayMs;
+        this.minDelayMs = minDelayMs;
+        this.budgetRatio = budgetRatio;
+        this.maxBudget = maxBurst;
+        this.latencyWindow = new long[Math.max(MIN_SAMPLES, windowSize)];
+        this.hedgeDelayMs = initialDelayMs;
+
+        this.requestCounter = meterRegistry.counter("judge0.hedge.requests");
+        this.hedgeCounter = meterRegistry.counter("judge0.hedge.sent");
+        this.hedgeWinCounter = meterRegistry.counter("judge0.hedge.wins");
+        this.budgetExhaustedCounter = meterRegistry.counter("judge0.hedge.budget-exhausted");
+        Gauge.builder("judge0.hedge.rate", this, executor -> ratio(executor.hedgeCounter, executor.requestCounter))
+                .description("Share of runs that were hedged")
+                .register(meterRegistry);
+        Gauge.builder("judge0.hedge.win-rate", this, executor -> ratio(executor.hedgeWinCounter, executor.hedgeCounter))
+                .description("Share of hedges that answered before the original request")
+                .register(meterRegistry);
+        Gauge.builder("judge0.hedge.delay", this, Judge0HedgingExecutor::getHedgeDelayMs)
+                .description("Current hedge delay (observed p95) in milliseconds")
+                .register(meterRegistry);
+
+        if (servers.size() < 2) {
+            log.warn("judge0.mode=hedged needs at least two Judge0 servers; running without hedges");
+        }
+        log.info("Hedging Judge0 submissions across {} servers: {}", servers.size(), serverUrls);
+    }
+
+    @Override
+    public CodeExecutionResult execute(String sourceCode, String stdin) {
+        try {
+            return executeAsync(sourceCode, stdin).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CodeExecutionException cause) {
+                throw cause;
+            }
+            throw new CodeExecutionException("Failed to execute code via Judge0", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CodeExecutionException("Interrupted while waiting for Judge0", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<CodeExecutionResult> executeAsync(String sourceCode, String stdin) {
+        Judge0SubmissionRequest request = judge0Service.buildSubmissionRequest(sourceCode, stdin);
+        int primary = Math.floorMod(nextServer.getAndIncrement(), servers.size());
+        int secondary = (primary + 1) % servers.size();
+        long start = System.nanoTime();
+
+        requestCounter.increment();
+        earnBudget();
+
+        Mono<Attempt> original = submit(primary, request)
+                .doOnSuccess(ignored -> recordLatency(System.nanoTime() - start))
+                .doOnCancel(() -> recordLatency(System.nanoTime() - start))
+                .map(response -> new Attempt(response, false));
+        if (servers.size() < 2) {
+            return complete(original);
+        }
+        Mono<Attempt> hedge = Mono.delay(Duration.ofMillis(getHedgeDelayMs()))
+                .filter(ignored -> tryTakeBudget())
+                .flatMap(ignored -> {
+                    hedgeCounter.increment();
+                    log.debug("Hedging Judge0 run to {} after {} ms", serverUrls.get(secondary), getHedgeDelayMs());
+                    return submit(secondary, request).map(response -> new Attempt(response, true));
+                });
+
+        return complete(Mono.firstWithValue(original, hedge));
+    }
+
+    public synchronized long getHedgeDelayMs() {
+        return hedgeDelayMs;
+    }
+
+    private CompletableFuture<CodeExecutionResult> complete(Mono<Attempt> attempt) {
+        return attempt
+                .switchIfEmpty(Mono.error(() -> new CodeExecutionException("Judge0 returned no result")))
+                .map(winner -> {
+                    if (winner.hedged()) {
+                        hedgeWinCounter.increment();
+                    }
+                    judge0Service.decodeBase64Fields(winner.response());
+                    return judge0Service.mapToCodeExecutionResult(winner.response());
+                })
+                .onErrorMap(error -> !(error instanceof CodeExecutionException),
+                        error -> new CodeExecutionException("Failed to execute code via Judge0", error))
+                .toFuture();
+    }
+
+    private Mono<Judge0ResultResponse> submit(int server, Judge0SubmissionRequest request) {
+        return servers.get(server).post()
+                .uri("/submissions?base64_encoded=true&wait=true")
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(Judge0ResultResponse.class)
+                .timeout(Duration.ofMillis(timeout))
+                .filter(response -> response.getStatus() != null);
+    }
+
+    private synchronized void earnBudget() {
+        budget = Math.min(maxBudget, budget + budgetRatio);
+    }
+
+    private synchronized boolean tryTakeBudget() {
+        if (budget < 1) {
+            budgetExhaustedCounter.increment();
+            return false;
+        }
+        budget -= 1;
+        return true;
+    }
+
+    /**
+     * Adds the latency of an original request to the window and, every few samples, recomputes the p95 that serves
+     * as the hedge delay.
+     */
+    private synchronized void recordLatency(long elapsedNanos) {
+        latencyWindow[windowPosition] = elapsedNanos / 1_000_000;
+        windowPosition = (windowPosition + 1) % latencyWindow.length;
+        windowSize = Math.min(windowSize + 1, latencyWindow.length);
+
+        if (windowSize < MIN_SAMPLES) {
+            hedgeDelayMs = initialDelayMs;
+        } else if (windowPosition % 10 == 0) {
+            long[] sorted = Arrays.copyOf(latencyWindow, windowSize);
+            Arrays.sort(sorted);
+            hedgeDelayMs = Math.max(minDelayMs, sorted[(int) Math.ceil(0.95 * windowSize) - 1]);
+        }
+    }
+
+    private static double ratio(Counter numerator, Counter denominator) {
+        return denominator.count() == 0 ? 0 : numerator.count() / denominator.count();
+    }
+
+    private record Attempt(Judge0ResultResponse response, boolean hedged) {
+    }
+}
@@ -0,0 +1,332 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.CodeExecutionResult;
+import com.edi.backend.dto.Judge0ResultResponse;
+import com.edi.backend.dto.Judge0SubmissionRequest;
+import com.edi.backend.exception.CodeExecutionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Spreads submissions over several Judge0 servers listed in judge0.nodes. Each run goes to the
+ * node with the lowest (in-flight + 1) x average latency, so a slow or busy node gets less traffic
+ * before it is saturated. A node's circuit breaker opens after judge0.routing.failure-threshold
+ * failures (timeouts, connection errors, 5xx responses or failed health checks) without a successful
+ * run in between; open nodes get no traffic until an active health check (GET /about) succeeds after
+ * the cool-down, after which a single real request probes the node and decides whether the breaker
+ * closes again. Only a successful run clears the failure count: /about can answer while submissions
+ * fail. A 4xx means the request itself was rejected, so it neither counts against the node nor is
+ * retried; any other failed run is retried once on another node. Enabled with judge0.mode=routed.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "judge0.mode", havingValue = "routed")
+@Slf4j
+public class Judge0RoutingExecutor implements CodeExecutor {
+
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final Judge0Service judge0Service;
+    private final List<Node> nodes;
+    private final Integer timeout;
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private final Duration healthTimeout;
+    private final int maxAttempts;
+    private final ScheduledExecutorService healthChecker;
+
+    public Judge0RoutingExecutor(
+            Judge0Service judge0Service,
+            Judge0ConnectionPool connectionPool,
+            MeterRegistry meterRegistry,
+            @Value("${judge0.nodes:${judge0.base-url}}") List<String> nodeUrls,
+            @Value("${judge0.timeout}") Integer timeout,
+            @Value("${judge0.routing.failure-threshold:3}") int failureThreshold,
+            @Value("${judge0.routing.open-duration-ms:30000}") long openDurationMs,
+            @Value("${judge0.routing.initial-latency-ms:500}") double initialLatencyMs,
+            @Value("${judge0.routing.health-interval-ms:5000}") long healthIntervalMs,
+            @Value("${judge0.routing.health-timeout-ms:2000}") long healthTimeoutMs
+    ) {
+        this.judge0Service = judge0Service;
+        this.timeout = timeout;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+        this.healthTimeout = Duration.ofMillis(healthTimeoutMs);
+        this.nodes = nodeUrls.stream()
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .distinct()
+                .map(url -> new Node(url, connectionPool.webClient(url), initialLatencyMs, meterRegistry))
+                .toList();
+        this.maxAttempts = Math.min(2, nodes.size());
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "judge0-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, healthIntervalMs, healthIntervalMs, TimeUnit.MILLISECONDS);
+
+        log.info("Routing Judge0 submissions across {} nodes: {}", nodes.size(), nodeUrls);
+    }
+
+    @Override
+    public CodeExecutionResult execute(String sourceCode, String stdin) {
+        try {
+            return executeAsync(sourceCode, stdin).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CodeExecutionException cause) {
+                throw cause;
+            }
+            throw new CodeExecutionException("Failed to execute code via Judge0", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CodeExecutionException("Interrupted while waiting for Judge0", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<CodeExecutionResult> executeAsync(String sourceCode, String stdin) {
+        return submit(judge0Service.buildSubmissionRequest(sourceCode, stdin), new HashSet<>(), maxAttempts);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        healthChecker.shutdownNow();
+    }
+
+    private CompletableFuture<CodeExecutionResult> submit(Judge0SubmissionRequest request, Set<Node> tried, int attemptsLeft) {
+        Node node = choose(tried);
+        if (node == null) {
+            return CompletableFuture.failedFuture(new CodeExecutionException("No healthy Judge0 node available"));
+        }
+        tried.add(node);
+
+        node.inFlight.incrementAndGet();
+        long start = System.nanoTime();
+
+        return node.webClient.post()
+                .uri("/submissions?base64_encoded=true&wait=true")
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(Judge0ResultResponse.class)
+                .timeout(Duration.ofMillis(timeout))
+                .toFuture()
+                .handle((response, error) -> {
+                    node.inFlight.decrementAndGet();
+                    long elapsedNanos = System.nanoTime() - start;
+
+                    if (error == null && response != null && response.getStatus() != null) {
+                        node.recordSuccess(elapsedNanos);
+                        judge0Service.decodeBase64Fields(response);
+                        return CompletableFuture.completedFuture(judge0Service.mapToCodeExecutionResult(response));
+                    }
+
+                    if (isClientError(error)) {
+                        node.recordRejected(elapsedNanos);
+                        return CompletableFuture.<CodeExecutionResult>failedFuture(
+                                new CodeExecutionException("Judge0 node " + node.url + " rejected the submission", error));
+                    }
+
+                    if (isNodeFailure(error)) {
+                        node.recordFailure(elapsedNanos);
+                    } else {
+                        node.recordRejected(elapsedNanos);
+                    }
+                    log.warn("Judge0 node {} failed to execute submission", node.url, error);
+                    if (attemptsLeft > 1) {
+                        return submit(request, tried, attemptsLeft - 1);
+                    }
+                    return CompletableFuture.<CodeExecutionResult>failedFuture(
+                            new CodeExecutionException("Failed to execute code via Judge0 node " + node.url, error));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private static boolean isClientError(Throwable error) {
+        return error instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError();
+    }
+
+    /**
+     * Only errors that say the node itself is down or overloaded count towards its breaker.
+     */
+    private static boolean isNodeFailure(Throwable error) {
+        return error instanceof TimeoutException
+                || error instanceof WebClientRequestException
+                || error instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError();
+    }
+
+    private Node choose(Set<Node> excluded) {
+        Set<Node> skipped = new HashSet<>(excluded);
+        while (true) {
+            Node node = nodes.stream()
+                    .filter(candidate -> !skipped.contains(candidate) && candidate.acceptsTraffic())
+                    .min(Comparator.comparingDouble(Node::score))
+                    .orElse(null);
+            if (node == null || node.admit()) {
+                return node;
+            }
+            // Another request claimed the half-open probe first
+            skipped.add(node);
+        }
+    }
+
+    void checkHealth() {
+        for (Node node : nodes) {
+            try {
+                node.webClient.get()
+                        .uri("/about")
+                        .retrieve()
+                        .toBodilessEntity()
+                        .block(healthTimeout);
+                node.recordHealthy();
+            } catch (Exception e) {
+                log.debug("Health check for Judge0 node {} failed: {}", node.url, e.getMessage());
+                node.recordUnhealthy();
+            }
+        }
+    }
+
+    private enum BreakerState {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private class Node {
+        private final String url;
+        private final WebClient webClient;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Timer successTimer;
+        private final Timer failureTimer;
+        private volatile double averageLatencyMs;
+        private volatile boolean sampled;
+        private volatile BreakerState state = BreakerState.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private volatile boolean probing;
+
+        private Node(String url, WebClient webClient, double initialLatencyMs, MeterRegistry meterRegistry) {
+            this.url = url;
+            this.webClient = webClient;
+            this.averageLatencyMs = initialLatencyMs;
+
+            Tags tags = Tags.of("node", url);
+            meterRegistry.gauge("judge0.node.in-flight", tags, inFlight);
+            meterRegistry.gauge("judge0.node.latency", tags, this, node -> node.averageLatencyMs);
+            meterRegistry.gauge("judge0.node.breaker", tags, this, node -> node.state.ordinal());
+            this.successTimer = meterRegistry.timer("judge0.node.requests", tags.and("outcome", "success"));
+            this.failureTimer = meterRegistry.timer("judge0.node.requests", tags.and("outcome", "failure"));
+        }
+
+        private boolean acceptsTraffic() {
+            return switch (state) {
+                case CLOSED -> true;
+                case HALF_OPEN -> !probing;
+                case OPEN -> false;
+            };
+        }
+
+        /**
+         * Claims the node for a request. A half-open node admits exactly one probe; everything else
+         * stays away until that probe closes or reopens the breaker.
+         */
+        private synchronized boolean admit() {
+            if (state == BreakerState.CLOSED) {
+                return true;
+            }
+            if (state == BreakerState.HALF_OPEN && !probing) {
+                probing = true;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Idle nodes without a latency sample yet, or waiting for their half-open probe, go first;
+         * otherwise their stale average would keep them from ever getting traffic.
+         */
+        private double score() {
+            if ((!sampled || state == BreakerState.HALF_OPEN) && inFlight.get() == 0) {
+                return 0;
+            }
+            return (inFlight.get() + 1) * averageLatencyMs;
+        }
+
+        private synchronized void recordSuccess(long elapsedNanos) {
+            successTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            double elapsedMs = elapsedNanos / 1_000_000.0;
+            averageLatencyMs = sampled
+                    ? LATENCY_SMOOTHING * elapsedMs + (1 - LATENCY_SMOOTHING) * averageLatencyMs
+                    : elapsedMs;
+            sampled = true;
+            consecutiveFailures = 0;
+            if (state != BreakerState.CLOSED) {
+                log.info("Judge0 node {} recovered, closing circuit breaker", url);
+                state = BreakerState.CLOSED;
+            }
+        }
+
+        /**
+         * A run that failed without blaming the node; a half-open probe is handed to the next request.
+         */
+        private synchronized void recordRejected(long elapsedNanos) {
+            failureTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            probing = false;
+        }
+
+        private synchronized void recordFailure(long elapsedNanos) {
+            failureTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            consecutiveFailures++;
+            if (state == BreakerState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                open();
+            }
+        }
+
+        private synchronized void recordHealthy() {
+            if (state == BreakerState.OPEN && System.currentTimeMillis() - openedAt >= openDurationMs) {
+                log.info("Judge0 node {} passed health check, letting one request probe it", url);
+                probing = false;
+                state = BreakerState.HALF_OPEN;
+            }
+        }
+
+        private synchronized void recordUnhealthy() {
+            consecutiveFailures++;
+            if (state == BreakerState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                open();
+            }
+        }
+
+        private void open() {
+            if (state != BreakerState.OPEN) {
+                log.warn("Opening circuit breaker for Judge0 node {} after {} consecutive failures", url, consecutiveFailures);
+            }
+            state = BreakerState.OPEN;
+            probing = false;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+}
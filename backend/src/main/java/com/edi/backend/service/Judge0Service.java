@@ -22,13 +22,12 @@ public class Judge0Service implements CodeExecutor {
     private final Integer timeout;
 
     public Judge0Service(
+            Judge0ConnectionPool connectionPool,
             @Value("${judge0.base-url}") String baseUrl,
             @Value("${judge0.language-id}") Integer languageId,
             @Value("${judge0.timeout}") Integer timeout
     ) {
-        this.webClient = WebClient.builder()
-                .baseUrl(baseUrl)
-                .build();
+        this.webClient = connectionPool.webClient(baseUrl);
         this.languageId = languageId;
         this.timeout = timeout;
     }
@@ -36,15 +35,7 @@ public class Judge0Service implements CodeExecutor {
     public Judge0ResultResponse executeAndWait(String sourceCode, String stdin) {
         log.info("Submitting code to Judge0 with synchronous execution");
 
-        String encodedSourceCode = Base64.getEncoder().encodeToString(sourceCode.getBytes());
-        String encodedStdin = Base64.getEncoder().encodeToString((stdin != null ? stdin : "").getBytes());
-
-        Judge0SubmissionRequest request = Judge0SubmissionRequest.builder()
-                .sourceCode(encodedSourceCode)
-                .languageId(languageId)
-                .stdin(encodedStdin)
-                .expectedOutput(null)
-                .build();
+        Judge0SubmissionRequest request = buildSubmissionRequest(sourceCode, stdin);
 
         Judge0ResultResponse response = webClient.post()
                 .uri("/submissions?base64_encoded=true&wait=true")
@@ -64,7 +55,19 @@ public class Judge0Service implements CodeExecutor {
         return response;
     }
 
-    private void decodeBase64Fields(Judge0ResultResponse response) {
+    Judge0SubmissionRequest buildSubmissionRequest(String sourceCode, String stdin) {
+        String encodedSourceCode = Base64.getEncoder().encodeToString(sourceCode.getBytes());
+        String encodedStdin = Base64.getEncoder().encodeToString((stdin != null ? stdin : "").getBytes());
+
+        return Judge0SubmissionRequest.builder()
+                .sourceCode(encodedSourceCode)
+                .languageId(languageId)
+                .stdin(encodedStdin)
+                .expectedOutput(null)
+                .build();
+    }
+
+    void decodeBase64Fields(Judge0ResultResponse response) {
         if (response.getStdout() != null && !response.getStdout().isEmpty()) {
             try {
                 String cleanedStdout = response.getStdout().replaceAll("\\s", "");
@@ -99,7 +102,7 @@ public class Judge0Service implements CodeExecutor {
         return mapToCodeExecutionResult(judge0Response);
     }
 
-    private CodeExecutionResult mapToCodeExecutionResult(Judge0ResultResponse response) {
+    CodeExecutionResult mapToCodeExecutionResult(Judge0ResultResponse response) {
         return CodeExecutionResult.builder()
                 .statusId(response.getStatus().getId())
                 .stdout(response.getStdout())
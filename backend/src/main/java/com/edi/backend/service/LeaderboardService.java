@@ -0,0 +1,261 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.LeaderboardEntryResponse;
+import com.edi.backend.entity.User;
+import com.edi.backend.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The global XP leaderboard, served from memory. Users are kept in an order-statistic treap sorted
+ * by XP (highest first, then by user id), in which every node knows the size of its subtree, so a
+ * user's rank is one O(log n) descent and the top N is an in-order walk of N nodes. The treap is
+ * loaded from users.xp at startup and then updated by XpService as XP is awarded; requests never
+ * touch the database. One read-write lock guards it, so a response is a consistent snapshot.
+ */
+@Service
+@Slf4j
+public class LeaderboardService {
+
+    private final UserRepository userRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Standing> standings = new HashMap<>();
+    private final Map<String, Long> userIdsByEmail = new HashMap<>();
+    private Node root;
+
+    public LeaderboardService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        List<UserRepository.UserStanding> users = userRepository.findAllStandings();
+        lock.writeLock().lock();
+        try {
+            standings.clear();
+            userIdsByEmail.clear();
+            root = null;
+            for (UserRepository.UserStanding user : users) {
+                add(new Standing(user.getId(), user.getUsername(), user.getEmail(), xpOf(user.getXp())));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded {} users into the leaderboard", users.size());
+    }
+
+    /**
+     * Adds a newly registered user, so their rank is known before they earn XP.
+     */
+    public void addUser(User user) {
+        lock.writeLock().lock();
+        try {
+            if (!standings.containsKey(user.getId())) {
+                add(new Standing(user.getId(), user.getUsername(), user.getEmail(), xpOf(user.getXp())));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addXp(Long userId, int xp) {
+        lock.writeLock().lock();
+        try {
+            Standing current = standings.get(userId);
+            if (current != null) {
+                root = delete(root, current);
+                add(new Standing(userId, current.username(), current.email(), current.xp() + xp));
+                return;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Not loaded yet (created outside registration): its users.xp already includes this award
+        userRepository.findById(userId).ifPresent(this::addUser);
+    }
+
+    public List<LeaderboardEntryResponse> top(int limit) {
+        lock.readLock().lock();
+        try {
+            List<LeaderboardEntryResponse> top = new ArrayList<>(Math.min(limit, standings.size()));
+            collectTop(root, limit, top);
+            return top;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<LeaderboardEntryResponse> standingOf(String email) {
+        lock.readLock().lock();
+        try {
+            Long userId = userIdsByEmail.get(email);
+            return userId == null ? Optional.empty() : Optional.of(toEntry(standings.get(userId)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return standings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Standing standing) {
+        standings.put(standing.userId(), standing);
+        userIdsByEmail.put(standing.email(), standing.userId());
+        root = insert(root, new Node(standing));
+    }
+
+    /**
+     * In-order walk that records each user's rank from the users already listed; ties share the
+     * rank of the first user with that XP.
+     */
+    private void collectTop(Node node, int limit, List<LeaderboardEntryResponse> top) {
+        if (node == null || top.size() >= limit) {
+            return;
+        }
+        collectTop(node.left, limit, top);
+        if (top.size() < limit) {
+            LeaderboardEntryResponse previous = top.isEmpty() ? null : top.get(top.size() - 1);
+            long rank = previous != null && previous.getXp() == node.standing.xp()
+                    ? previous.getRank()
+                    : top.size() + 1;
+            top.add(entry(node.standing, rank));
+        }
+        collectTop(node.right, limit, top);
+    }
+
+    private LeaderboardEntryResponse toEntry(Standing standing) {
+        return entry(standing, countAhead(root, standing.xp()) + 1);
+    }
+
+    private LeaderboardEntryResponse entry(Standing standing, long rank) {
+        return LeaderboardEntryResponse.builder()
+                .rank(rank)
+                .userId(standing.userId())
+                .username(standing.username())
+                .xp(standing.xp())
+                .build();
+    }
+
+    /**
+     * Number of users with more XP than the given amount.
+     */
+    private static int countAhead(Node node, int xp) {
+        int ahead = 0;
+        while (node != null) {
+            if (node.standing.xp() > xp) {
+                ahead += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return ahead;
+    }
+
+    // Treap operations; order is XP descending, then user id ascending
+
+    private static int compare(Standing a, Standing b) {
+        int byXp = Integer.compare(b.xp(), a.xp());
+        return byXp != 0 ? byXp : Long.compare(a.userId(), b.userId());
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.standing, node.standing) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        return update(node);
+    }
+
+    private static Node delete(Node node, Standing removed) {
+        if (node == null) {
+            return null;
+        }
+        int order = compare(removed, node.standing);
+        if (order < 0) {
+            node.left = delete(node.left, removed);
+        } else if (order > 0) {
+            node.right = delete(node.right, removed);
+        } else if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        } else if (node.left.priority > node.right.priority) {
+            node = rotateRight(node);
+            node.right = delete(node.right, removed);
+        } else {
+            node = rotateLeft(node);
+            node.left = delete(node.left, removed);
+        }
+        return update(node);
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = update(node);
+        return update(left);
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = update(node);
+        return update(right);
+    }
+
+    private static Node update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        return node;
+    }
+
+    private static int xpOf(Integer xp) {
+        return xp != null ? xp : 0;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private record Standing(Long userId, String username, String email, int xp) {
+    }
+
+    private static class Node {
+        private final Standing standing;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        private Node(Standing standing) {
+            this.standing = standing;
+        }
+    }
+}
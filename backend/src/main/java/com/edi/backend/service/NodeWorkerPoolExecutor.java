@@ -0,0 +1,328 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.CodeExecutionResult;
+import com.edi.backend.exception.CodeExecutionException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Self-hosted alternative to Judge0: a pool of long-lived node processes, each running
+ * node/executor-worker.js and receiving submissions over a length-prefixed JSON protocol on
+ * stdin/stdout. This removes the per-run container start that dominates Judge0 latency.
+ * Workers are recycled after execution.node-pool.max-runs-per-worker runs, after a hard timeout,
+ * after crashing or answering garbage, after a run that leaves timers or microtasks pending, or when
+ * their RSS passes execution.node-pool.max-memory-mb. The permission model needs Node.js 20 or
+ * newer, which is checked at startup.
+ * Status ids match Judge0 (3 accepted, 5 time limit, 6 compile error, 11/12 runtime error). A worker
+ * process serves many runs, so no per-run memory is reported. Enabled with judge0.mode=node-pool,
+ * in place of the Judge0 executors; the processes are started with restrictive node flags, but OS
+ * level isolation (separate user, container) is still up to the deployment.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "judge0.mode", havingValue = "node-pool")
+@Slf4j
+public class NodeWorkerPoolExecutor implements CodeExecutor {
+
+    private static final int STATUS_TIME_LIMIT_EXCEEDED = 5;
+    private static final int STATUS_RUNTIME_ERROR_OTHER = 12;
+    private static final int MIN_NODE_MAJOR_VERSION = 20;
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final List<String> command;
+    private final int maxRunsPerWorker;
+    private final long maxMemoryKb;
+    private final long timeLimitMs;
+    private final long acquireTimeoutMs;
+    private final Path workDirectory;
+    private final BlockingQueue<NodeWorker> idle = new LinkedBlockingQueue<>();
+    private final Set<NodeWorker> workers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService spawner;
+    private final ScheduledExecutorService watchdog;
+    private final Timer acquireTimer;
+
+    public NodeWorkerPoolExecutor(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${execution.node-pool.node-binary:node}") String nodeBinary,
+            @Value("${execution.node-pool.size:4}") int poolSize,
+            @Value("${execution.node-pool.max-runs-per-worker:200}") int maxRunsPerWorker,
+            @Value("${execution.node-pool.max-memory-mb:128}") int maxMemoryMb,
+            @Value("${execution.node-pool.time-limit-ms:5000}") long timeLimitMs,
+            @Value("${execution.node-pool.acquire-timeout-ms:10000}") long acquireTimeoutMs
+    ) throws IOException {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.maxRunsPerWorker = maxRunsPerWorker;
+        this.maxMemoryKb = maxMemoryMb * 1024L;
+        this.timeLimitMs = timeLimitMs;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+
+        requireNodeVersion(nodeBinary);
+
+        this.workDirectory = Files.createTempDirectory("codifai-node-pool");
+        Path script = workDirectory.resolve("executor-worker.js");
+        try (InputStream in = new ClassPathResource("node/executor-worker.js").getInputStream()) {
+            Files.copy(in, script, StandardCopyOption.REPLACE_EXISTING);
+        }
+        this.command = List.of(
+                nodeBinary,
+                "--max-old-space-size=" + maxMemoryMb,
+                "--disallow-code-generation-from-strings",
+                "--experimental-permission",
+                "--allow-fs-read=" + script,
+                "--no-warnings",
+                script.toString()
+        );
+
+        this.spawner = Executors.newSingleThreadExecutor(daemonThreads("node-pool-spawner"));
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(daemonThreads("node-pool-watchdog"));
+        this.acquireTimer = Timer.builder("execution.node-pool.acquire")
+                .description("Time spent waiting for an idle node worker")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        meterRegistry.gauge("execution.node-pool.workers", workers, Set::size);
+        meterRegistry.gauge("execution.node-pool.idle", idle, BlockingQueue::size);
+
+        for (int i = 0; i < poolSize; i++) {
+            idle.add(spawn());
+        }
+        log.info("Started {} node workers with {}", poolSize, command);
+    }
+
+    @Override
+    public CodeExecutionResult execute(String sourceCode, String stdin) {
+        NodeWorker worker = acquire();
+
+        WorkerResponse response;
+        try {
+            response = worker.run(sourceCode);
+        } catch (WorkerTimeoutException e) {
+            recycle(worker, "timeout");
+            return failure(STATUS_TIME_LIMIT_EXCEEDED, null);
+        } catch (IOException e) {
+            log.warn("Node worker {} died during execution", worker.process.pid(), e);
+            recycle(worker, "crash");
+            return failure(STATUS_RUNTIME_ERROR_OTHER, "Execution process terminated unexpectedly");
+        } catch (RuntimeException e) {
+            // Anything else (an unreadable response, say) leaves the worker in an unknown state
+            log.warn("Node worker {} failed during execution", worker.process.pid(), e);
+            recycle(worker, "error");
+            throw new CodeExecutionException("Node.js worker failed", e);
+        }
+
+        CodeExecutionResult result = response.result();
+        if (response.recycle()) {
+            recycle(worker, "pending-work");
+        } else if (response.workerRssKb() != null && response.workerRssKb() > maxMemoryKb) {
+            recycle(worker, "memory");
+        } else if (worker.runs >= maxRunsPerWorker) {
+            recycle(worker, "max-runs");
+        } else {
+            idle.offer(worker);
+        }
+
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        spawner.shutdownNow();
+        watchdog.shutdownNow();
+        workers.forEach(worker -> worker.process.destroyForcibly());
+    }
+
+    private NodeWorker acquire() {
+        long start = System.nanoTime();
+        try {
+            NodeWorker worker = idle.poll(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+            if (worker == null) {
+                throw new CodeExecutionException("No Node.js worker became available within " + acquireTimeoutMs + "ms");
+            }
+            return worker;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CodeExecutionException("Interrupted while waiting for a Node.js worker", e);
+        } finally {
+            acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void recycle(NodeWorker worker, String reason) {
+        meterRegistry.counter("execution.node-pool.recycled", "reason", reason).increment();
+        log.debug("Recycling node worker {} after {} runs ({})", worker.process.pid(), worker.runs, reason);
+        worker.process.destroyForcibly();
+        workers.remove(worker);
+
+        try {
+            spawner.execute(() -> {
+                try {
+                    idle.offer(spawn());
+                } catch (IOException e) {
+                    log.error("Failed to start replacement node worker", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Node pool shutting down, not replacing worker");
+        }
+    }
+
+    private NodeWorker spawn() throws IOException {
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(workDirectory.toFile())
+                .redirectError(ProcessBuilder.Redirect.INHERIT);
+        builder.environment().clear();
+
+        NodeWorker worker = new NodeWorker(builder.start());
+        workers.add(worker);
+        return worker;
+    }
+
+    /**
+     * --experimental-permission exists from Node.js 20 on; an older node would refuse every
+     * worker with an unknown-flag error, so fail startup with a clear message instead.
+     */
+    private static void requireNodeVersion(String nodeBinary) throws IOException {
+        String version;
+        try {
+            Process process = new ProcessBuilder(nodeBinary, "--version").redirectErrorStream(true).start();
+            version = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            process.waitFor(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while checking the Node.js version", e);
+        }
+
+        int major;
+        try {
+            major = Integer.parseInt(version.replaceFirst("^v", "").split("\\.")[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Could not read the Node.js version from '" + nodeBinary + " --version': " + version);
+        }
+        if (major < MIN_NODE_MAJOR_VERSION) {
+            throw new IllegalStateException("judge0.mode=node-pool needs Node.js " + MIN_NODE_MAJOR_VERSION
+                    + " or newer for --experimental-permission, but " + nodeBinary + " is " + version);
+        }
+    }
+
+    private CodeExecutionResult failure(int statusId, String stderr) {
+        return CodeExecutionResult.builder()
+                .statusId(statusId)
+                .stdout("")
+                .stderr(stderr)
+                .time(String.valueOf(timeLimitMs / 1000.0))
+                .build();
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class WorkerTimeoutException extends Exception {
+    }
+
+    private record WorkerResponse(CodeExecutionResult result, Long workerRssKb, boolean recycle) {
+    }
+
+    private class NodeWorker {
+        private final Process process;
+        private final DataOutputStream requests;
+        private final DataInputStream responses;
+        private int runs;
+
+        private NodeWorker(Process process) {
+            this.process = process;
+            this.requests = new DataOutputStream(process.getOutputStream());
+            this.responses = new DataInputStream(process.getInputStream());
+        }
+
+        /**
+         * The worker enforces the time limit itself through vm's timeout; the watchdog is a
+         * backstop for a worker that stops responding altogether, and kills the process.
+         */
+        private WorkerResponse run(String sourceCode) throws IOException, WorkerTimeoutException {
+            runs++;
+            byte[] request = objectMapper.writeValueAsBytes(Map.of("source", sourceCode, "timeoutMs", timeLimitMs));
+
+            AtomicBoolean killed = new AtomicBoolean();
+            ScheduledFuture<?> backstop = watchdog.schedule(() -> {
+                killed.set(true);
+                process.destroyForcibly();
+            }, timeLimitMs * 2, TimeUnit.MILLISECONDS);
+
+            try {
+                requests.writeInt(request.length);
+                requests.write(request);
+                requests.flush();
+
+                byte[] response = new byte[responses.readInt()];
+                responses.readFully(response);
+                return toResponse(objectMapper.readTree(new String(response, StandardCharsets.UTF_8)));
+            } catch (IOException e) {
+                if (killed.get()) {
+                    throw new WorkerTimeoutException();
+                }
+                throw e;
+            } finally {
+                backstop.cancel(false);
+            }
+        }
+
+        private WorkerResponse toResponse(JsonNode node) {
+            if (!node.hasNonNull("statusId")) {
+                throw new IllegalStateException("Node worker response has no statusId");
+            }
+            CodeExecutionResult result = CodeExecutionResult.builder()
+                    .statusId(node.get("statusId").asInt())
+                    .stdout(textOrNull(node, "stdout"))
+                    .stderr(textOrNull(node, "stderr"))
+                    .compileOutput(textOrNull(node, "compileOutput"))
+                    .time(textOrNull(node, "time"))
+                    .build();
+            return new WorkerResponse(result,
+                    node.hasNonNull("workerRssKb") ? node.get("workerRssKb").asLong() : null,
+                    node.path("recycle").asBoolean(false));
+        }
+
+        private String textOrNull(JsonNode node, String field) {
+            return node.hasNonNull(field) ? node.get(field).asText() : null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.edi.backend.service;
+
+import com.edi.backend.repository.XpLedgerRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The challenges each user has solved, as a bitmap indexed by challenge id, in a bounded cache. A
+ * user's bitmap is loaded from xp_ledger the first time it is needed and then kept current in
+ * place as first solves commit, so login and the first-solve check do not query submissions.
+ * Challenge ids are small and dense, so a BitSet costs a few hundred bytes per user.
+ */
+@Service
+public class SolvedChallengeCache {
+
+    private final XpLedgerRepository xpLedgerRepository;
+    private final Cache<Long, BitSet> cache;
+
+    public SolvedChallengeCache(
+            XpLedgerRepository xpLedgerRepository,
+            MeterRegistry meterRegistry,
+            @Value("${solved-cache.max-users:50000}") long maxUsers,
+            @Value("${solved-cache.expire-after-access:PT30M}") Duration expireAfterAccess
+    ) {
+        this.xpLedgerRepository = xpLedgerRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "solved-challenges");
+    }
+
+    public boolean hasSolved(Long userId, Long challengeId) {
+        BitSet solved = solvedBy(userId);
+        synchronized (solved) {
+            return solved.get(Math.toIntExact(challengeId));
+        }
+    }
+
+    public List<Long> solvedChallengeIds(Long userId) {
+        BitSet solved = solvedBy(userId);
+        synchronized (solved) {
+            return solved.stream().mapToObj(Long::valueOf).toList();
+        }
+    }
+
+    /**
+     * Records a committed first solve. Users not in the cache are skipped; their bitmap is read
+     * from the ledger, which already has the solve, when next needed. A load in progress finishes
+     * before the bit is set.
+     */
+    public void markSolved(Long userId, Long challengeId) {
+        cache.asMap().computeIfPresent(userId, (id, solved) -> {
+            synchronized (solved) {
+                solved.set(Math.toIntExact(challengeId));
+            }
+            return solved;
+        });
+    }
+
+    private BitSet solvedBy(Long userId) {
+        return cache.get(userId, this::load);
+    }
+
+    private BitSet load(Long userId) {
+        BitSet solved = new BitSet();
+        for (Long challengeId : xpLedgerRepository.findChallengeIdsByUserId(userId)) {
+            solved.set(Math.toIntExact(challengeId));
+        }
+        return solved;
+    }
+}
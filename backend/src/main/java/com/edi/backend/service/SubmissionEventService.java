@@ -0,0 +1,265 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.SubmissionProgressEvent;
+import com.edi.backend.dto.SubmissionResponse;
+import com.edi.backend.dto.TestResultResponse;
+import com.edi.backend.entity.SubmissionStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Progress of queued submissions as Server-Sent Events: queued and running as they happen, then one
+ * test event per parsed PASS/FAIL line and the final verdict. The sandbox returns all output at
+ * once, so the test events are sent together at completion, right before the verdict, not while
+ * the tests run. Each submission keeps its numbered events in memory, so a client reconnecting
+ * with Last-Event-ID gets only what it missed. Streams are dropped submission.events.retention-ms
+ * after their verdict or error; a subscriber arriving later gets the stored verdict. Streams that
+ * never finish (a submission that is not running) are closed and dropped after
+ * submission.events.max-idle-ms without events. SseEmitter completes asynchronously, so an open
+ * stream does not hold a servlet thread.
+ */
+@Service
+@Slf4j
+public class SubmissionEventService {
+
+    static final String QUEUED = "queued";
+    static final String RUNNING = "running";
+    static final String TEST = "test";
+    static final String VERDICT = "verdict";
+    static final String ERROR = "error";
+
+    private final long emitterTimeoutMs;
+    private final long retentionMs;
+    private final long maxIdleMs;
+    private final Map<Long, EventStream> streams = new ConcurrentHashMap<>();
+
+    public SubmissionEventService(
+            MeterRegistry meterRegistry,
+            @Value("${submission.events.timeout-ms:300000}") long emitterTimeoutMs,
+            @Value("${submission.events.retention-ms:300000}") long retentionMs,
+            @Value("${submission.events.max-idle-ms:1800000}") long maxIdleMs
+    ) {
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.retentionMs = retentionMs;
+        this.maxIdleMs = maxIdleMs;
+        meterRegistry.gauge("submission.events.streams", streams, Map::size);
+        meterRegistry.gauge("submission.events.subscribers", streams,
+                map -> map.values().stream().mapToInt(EventStream::subscriberCount).sum());
+    }
+
+    public void publishQueued(Long submissionId) {
+        streamFor(submissionId).publish(SubmissionProgressEvent.builder()
+                .submissionId(submissionId)
+                .type(QUEUED)
+                .build());
+    }
+
+    public void publishRunning(Long submissionId) {
+        streamFor(submissionId).publish(SubmissionProgressEvent.builder()
+                .submissionId(submissionId)
+                .type(RUNNING)
+                .build());
+    }
+
+    /**
+     * Publishes every parsed test result in case order, then the verdict, and closes the stream.
+     */
+    public void publishResult(SubmissionResponse result) {
+        EventStream stream = streamFor(result.getId());
+        for (TestResultResponse test : result.getTestResults()) {
+            stream.publish(SubmissionProgressEvent.builder()
+                    .submissionId(result.getId())
+                    .type(TEST)
+                    .test(test)
+                    .build());
+        }
+        stream.publish(SubmissionProgressEvent.builder()
+                .submissionId(result.getId())
+                .type(VERDICT)
+                .verdict(result)
+                .build());
+    }
+
+    /**
+     * Ends the stream of a submission whose evaluation failed without a verdict. Does nothing once
+     * the stream has finished, so it is safe to call on every path after evaluation.
+     */
+    public void publishError(Long submissionId, String message) {
+        EventStream stream = streams.get(submissionId);
+        if (stream == null) {
+            return;
+        }
+        stream.publish(SubmissionProgressEvent.builder()
+                .submissionId(submissionId)
+                .type(ERROR)
+                .message(message)
+                .build());
+    }
+
+    /**
+     * Forgets a submission that will not run, closing any open subscriptions.
+     */
+    public void discard(Long submissionId) {
+        EventStream stream = streams.remove(submissionId);
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Opens a stream for a submission the caller may see. Events after lastEventId are replayed
+     * first; a submission that finished before its events were kept gets its verdict right away.
+     */
+    public SseEmitter subscribe(SubmissionResponse current, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        EventStream stream = streams.get(current.getId());
+
+        if (stream == null && current.getStatus() != SubmissionStatus.PENDING) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .id("1")
+                        .name(VERDICT)
+                        .data(SubmissionProgressEvent.builder()
+                                .submissionId(current.getId())
+                                .type(VERDICT)
+                                .verdict(current)
+                                .build(), MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+            return emitter;
+        }
+
+        if (stream == null) {
+            stream = streamFor(current.getId());
+        }
+        stream.subscribe(emitter, parseEventId(lastEventId));
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${submission.events.cleanup-interval-ms:60000}")
+    public void dropFinishedStreams() {
+        long now = System.currentTimeMillis();
+        streams.values().removeIf(stream -> stream.finishedBefore(now - retentionMs));
+        streams.values().removeIf(stream -> stream.closeIfIdleSince(now - maxIdleMs));
+    }
+
+    private EventStream streamFor(Long submissionId) {
+        return streams.computeIfAbsent(submissionId, id -> new EventStream());
+    }
+
+    private long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Events and subscribers of one submission. Publishing and subscribing hold the stream's lock,
+     * so every subscriber sees events once and in order.
+     */
+    private static class EventStream {
+        private final List<SubmissionProgressEvent> events = new ArrayList<>();
+        private final List<SseEmitter> subscribers = new ArrayList<>();
+        private long finishedAt;
+        private long lastActivityAt = System.currentTimeMillis();
+
+        private synchronized void publish(SubmissionProgressEvent event) {
+            if (finishedAt != 0) {
+                return;
+            }
+            events.add(event);
+            lastActivityAt = System.currentTimeMillis();
+            long id = events.size();
+            // Completing an emitter may call back into removeSubscriber, so iterate over a copy
+            for (SseEmitter emitter : List.copyOf(subscribers)) {
+                if (!send(emitter, id, event)) {
+                    subscribers.remove(emitter);
+                }
+            }
+
+            if (VERDICT.equals(event.getType()) || ERROR.equals(event.getType())) {
+                close();
+            }
+        }
+
+        private synchronized void subscribe(SseEmitter emitter, long lastEventId) {
+            for (int i = (int) Math.min(lastEventId, events.size()); i < events.size(); i++) {
+                if (!send(emitter, i + 1, events.get(i))) {
+                    return;
+                }
+            }
+            if (finishedAt != 0) {
+                emitter.complete();
+                return;
+            }
+
+            subscribers.add(emitter);
+            Runnable remove = () -> removeSubscriber(emitter);
+            emitter.onCompletion(remove);
+            emitter.onTimeout(remove);
+            emitter.onError(error -> remove.run());
+        }
+
+        private synchronized void close() {
+            finishedAt = System.currentTimeMillis();
+            List<SseEmitter> open = List.copyOf(subscribers);
+            subscribers.clear();
+            open.forEach(SseEmitter::complete);
+        }
+
+        private synchronized void removeSubscriber(SseEmitter emitter) {
+            subscribers.remove(emitter);
+        }
+
+        private synchronized int subscriberCount() {
+            return subscribers.size();
+        }
+
+        private synchronized boolean finishedBefore(long cutoff) {
+            return finishedAt != 0 && finishedAt < cutoff;
+        }
+
+        /**
+         * Closes an unfinished stream with no events since the cutoff; true if it was closed.
+         */
+        private synchronized boolean closeIfIdleSince(long cutoff) {
+            if (finishedAt != 0 || lastActivityAt >= cutoff) {
+                return false;
+            }
+            close();
+            return true;
+        }
+
+        private boolean send(SseEmitter emitter, long id, SubmissionProgressEvent event) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(id))
+                        .name(event.getType())
+                        .data(event, MediaType.APPLICATION_JSON));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping submission event subscriber: {}", e.getMessage());
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.SampleRunResponse;
+import com.edi.backend.dto.SubmissionResponse;
+import com.edi.backend.entity.Role;
+import com.edi.backend.entity.SubmissionStatus;
+import com.edi.backend.exception.ConcurrencyLimitExceededException;
+import com.edi.backend.exception.SubmissionQueueFullException;
+import com.edi.backend.repository.SubmissionRepository;
+import com.edi.backend.service.ExecutionLaneQueue.Lane;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous submission pipeline. Submissions are persisted as PENDING and handed to a bounded
+ * worker pool, so the request thread returns immediately instead of waiting for the sandbox.
+ * Sample runs share the workers in a lower-priority lane, and both lanes are scheduled fairly per
+ * user (see {@link ExecutionLaneQueue}); users weigh 1 and admins submission.lanes.admin-weight.
+ */
+@Service
+@Slf4j
+public class SubmissionQueueService {
+
+    private static final String EVALUATION_FAILED = "The submission could not be evaluated";
+
+    private final CodeExecutionService codeExecutionService;
+    private final SubmissionRepository submissionRepository;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final SubmissionEventService submissionEventService;
+    private final boolean enabled;
+    private final int adminWeight;
+    private final ExecutionLaneQueue queue;
+    private final ThreadPoolExecutor workers;
+    private final Map<Lane, Timer> queueWaitTimers = new EnumMap<>(Lane.class);
+    private final Timer processingTimer;
+
+    public SubmissionQueueService(
+            CodeExecutionService codeExecutionService,
+            SubmissionRepository submissionRepository,
+            AdaptiveConcurrencyLimiter concurrencyLimiter,
+            SubmissionEventService submissionEventService,
+            MeterRegistry meterRegistry,
+            @Value("${submission.async.enabled:false}") boolean enabled,
+            @Value("${submission.async.workers:4}") int workerCount,
+            @Value("${submission.async.queue-capacity:100}") int queueCapacity,
+            @Value("${submission.lanes.sample-capacity:50}") int sampleCapacity,
+            @Value("${submission.lanes.graded-per-sample:4}") int gradedPerSample,
+            @Value("${submission.lanes.admin-weight:2}") int adminWeight
+    ) {
+        this.codeExecutionService = codeExecutionService;
+        this.submissionRepository = submissionRepository;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.submissionEventService = submissionEventService;
+        this.enabled = enabled;
+        this.adminWeight = adminWeight;
+        this.queue = new ExecutionLaneQueue(queueCapacity, sampleCapacity, gradedPerSample);
+        this.workers = new ThreadPoolExecutor(
+                workerCount,
+                workerCount,
+                0L,
+                TimeUnit.MILLISECONDS,
+                queue,
+                new WorkerThreadFactory()
+        );
+
+        Gauge.builder("submission.queue.depth", workers, executor -> executor.getQueue().size())
+                .description("Submissions waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("submission.queue.active", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Submissions currently being executed")
+                .register(meterRegistry);
+        Gauge.builder("submission.queue.capacity", workers, executor -> executor.getQueue().remainingCapacity())
+                .description("Free slots left in the submission queue")
+                .register(meterRegistry);
+        for (Lane lane : Lane.values()) {
+            Gauge.builder("submission.queue.lane.depth", queue, laneQueue -> laneQueue.size(lane))
+                    .description("Executions waiting for a worker in one lane")
+                    .tag("lane", lane.tag())
+                    .register(meterRegistry);
+            queueWaitTimers.put(lane, Timer.builder("submission.queue.wait")
+                    .description("Time an execution spends queued before a worker picks it up")
+                    .tag("lane", lane.tag())
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+        this.processingTimer = Timer.builder("submission.queue.processing")
+                .description("Time a worker spends evaluating a submission")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public SubmissionResponse enqueue(Long userId, Role role, Long challengeId, String userCode) {
+        if (queue.remainingCapacity(Lane.GRADED) == 0) {
+            throw new SubmissionQueueFullException("Too many pending submissions, please try again shortly");
+        }
+
+        shedLoadIfBehind(Lane.GRADED);
+
+        SubmissionResponse pending = codeExecutionService.createPendingSubmission(userId, challengeId, userCode);
+
+        try {
+            schedule(pending.getId(), userId, weightOf(role));
+        } catch (RejectedExecutionException e) {
+            codeExecutionService.discardPendingSubmission(pending.getId());
+            throw new SubmissionQueueFullException("Too many pending submissions, please try again shortly");
+        }
+
+        return pending;
+    }
+
+    /**
+     * Queues a sample run in the sample lane. The returned future completes when a worker has run
+     * it, so the request waits without holding its servlet thread.
+     */
+    public CompletableFuture<SampleRunResponse> runSamples(Long userId, Role role, Long challengeId, String userCode) {
+        shedLoadIfBehind(Lane.SAMPLE);
+
+        CompletableFuture<SampleRunResponse> response = new CompletableFuture<>();
+        long enqueuedAt = System.nanoTime();
+        try {
+            workers.execute(new ExecutionLaneQueue.Task(Lane.SAMPLE, userId, weightOf(role), () -> {
+                queueWaitTimers.get(Lane.SAMPLE).record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    codeExecutionService.runSamples(challengeId, userCode).whenComplete((result, error) -> {
+                        if (error != null) {
+                            response.completeExceptionally(error);
+                        } else {
+                            response.complete(result);
+                        }
+                    });
+                } catch (Exception e) {
+                    response.completeExceptionally(e);
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            throw new SubmissionQueueFullException("Too many sample runs waiting, please try again shortly");
+        }
+        return response;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingSubmissions() {
+        if (!enabled) {
+            return;
+        }
+
+        List<SubmissionRepository.QueuedSubmission> pending =
+                submissionRepository.findQueuedByStatus(SubmissionStatus.PENDING);
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Queued under their owners, so the backlog is shared out per user like new submissions
+        log.info("Re-queueing {} pending submissions left over from the previous run", pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            SubmissionRepository.QueuedSubmission submission = pending.get(i);
+            try {
+                schedule(submission.getId(), submission.getUserId(), weightOf(submission.getRole()));
+            } catch (RejectedExecutionException e) {
+                log.warn("Submission queue full while resuming, {} submissions stay pending until next start",
+                        pending.size() - i);
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void schedule(Long submissionId, Long userId, int weight) {
+        long enqueuedAt = System.nanoTime();
+        // Published first so the queued event always precedes the worker's running event
+        submissionEventService.publishQueued(submissionId);
+        try {
+            workers.execute(new ExecutionLaneQueue.Task(Lane.GRADED, userId, weight, () -> {
+                queueWaitTimers.get(Lane.GRADED).record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                process(submissionId);
+            }));
+        } catch (RejectedExecutionException e) {
+            submissionEventService.discard(submissionId);
+            throw e;
+        }
+    }
+
+    /**
+     * More queued in a lane than one wave of executions means the sandbox is behind; shed load early.
+     */
+    private void shedLoadIfBehind(Lane lane) {
+        int queued = queue.size(lane);
+        if (concurrencyLimiter.isEnabled() && queued >= concurrencyLimiter.getLimit()) {
+            throw new ConcurrencyLimitExceededException(
+                    "Code execution is at capacity, please try again shortly",
+                    concurrencyLimiter.retryAfterSeconds(queued + concurrencyLimiter.getInFlight()));
+        }
+    }
+
+    private int weightOf(Role role) {
+        return role == Role.ADMIN ? adminWeight : 1;
+    }
+
+    /**
+     * Dispatches a submission. Synchronous executors finish before this returns; executors that
+     * complete asynchronously (Judge0 callbacks) free the worker as soon as the run is submitted.
+     */
+    private void process(Long submissionId) {
+        Timer.Sample sample = Timer.start();
+        try {
+            codeExecutionService.processPendingSubmission(submissionId)
+                    .whenComplete((ignored, error) -> {
+                        sample.stop(processingTimer);
+                        if (error != null) {
+                            log.error("Failed to process submission {}", submissionId, error);
+                            submissionEventService.publishError(submissionId, EVALUATION_FAILED);
+                        }
+                    });
+        } catch (Exception e) {
+            sample.stop(processingTimer);
+            log.error("Failed to process submission {}", submissionId, e);
+            submissionEventService.publishError(submissionId, EVALUATION_FAILED);
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "submission-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
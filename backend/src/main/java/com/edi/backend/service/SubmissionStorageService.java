@@ -0,0 +1,117 @@
+package com.edi.backend.service;
+
+import com.edi.backend.entity.Submission;
+import com.edi.backend.repository.SubmissionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caps submission output before it is stored and moves rows written before compressed storage
+ * into the compressed columns, and their code into code_blobs. Output longer than
+ * submission.storage.max-stdout-chars or max-stderr-chars is cut, and the original length is kept
+ * next to it. Old rows are served transparently on load (see Submission#onLoad); a row read
+ * outside a write transaction is queued and rewritten by the next migration run, which also works
+ * through the remaining old rows in batches of submission.storage.migration-batch-size. Databases
+ * from before this storage need backend/db/submissions-code-nullable.sql run once.
+ */
+@Service
+@Slf4j
+public class SubmissionStorageService {
+
+    private final SubmissionRepository submissionRepository;
+    private final CodeBlobService codeBlobService;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxStdoutChars;
+    private final int maxStderrChars;
+    private final int migrationBatchSize;
+    private final Set<Long> pendingMigrations = ConcurrentHashMap.newKeySet();
+    private volatile boolean legacyRowsRemaining = true;
+
+    public SubmissionStorageService(
+            SubmissionRepository submissionRepository,
+            CodeBlobService codeBlobService,
+            TransactionTemplate transactionTemplate,
+            @Value("${submission.storage.max-stdout-chars:65536}") int maxStdoutChars,
+            @Value("${submission.storage.max-stderr-chars:16384}") int maxStderrChars,
+            @Value("${submission.storage.migration-batch-size:200}") int migrationBatchSize
+    ) {
+        this.submissionRepository = submissionRepository;
+        this.codeBlobService = codeBlobService;
+        this.transactionTemplate = transactionTemplate;
+        this.maxStdoutChars = maxStdoutChars;
+        this.maxStderrChars = maxStderrChars;
+        this.migrationBatchSize = migrationBatchSize;
+    }
+
+    public void setOutput(Submission submission, String stdout, String stderr) {
+        submission.setStdout(cap(stdout, maxStdoutChars));
+        submission.setStdoutLength(stdout != null ? stdout.length() : null);
+        submission.setStderr(cap(stderr, maxStderrChars));
+        submission.setStderrLength(stderr != null ? stderr.length() : null);
+    }
+
+    /**
+     * Queues a submission that was served from its old columns or inline code for rewriting.
+     */
+    public void migrateLater(Submission submission) {
+        if (needsMigration(submission)) {
+            pendingMigrations.add(submission.getId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${submission.storage.migration-interval-ms:60000}")
+    public void migrateLegacyRows() {
+        Set<Long> ids = new LinkedHashSet<>(pendingMigrations);
+        pendingMigrations.removeAll(ids);
+        if (legacyRowsRemaining) {
+            List<Long> batch = submissionRepository.findIdsToMigrate(PageRequest.of(0, migrationBatchSize));
+            legacyRowsRemaining = batch.size() == migrationBatchSize;
+            ids.addAll(batch);
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        int migrated = 0;
+        for (Long id : ids) {
+            try {
+                transactionTemplate.executeWithoutResult(tx -> submissionRepository.findById(id).ifPresent(submission -> {
+                    if (!needsMigration(submission)) {
+                        return;
+                    }
+                    setOutput(submission, submission.getStdout(), submission.getStderr());
+                    if (submission.getCodeHash() == null && submission.getCode() != null) {
+                        submission.setCodeHash(codeBlobService.store(submission.getCode()));
+                        submission.setCode(null);
+                    }
+                }));
+                migrated++;
+            } catch (Exception e) {
+                log.warn("Failed to migrate storage of submission {}", id, e);
+            }
+        }
+        log.info("Migrated {} of {} submissions to compressed storage", migrated, ids.size());
+    }
+
+    private boolean needsMigration(Submission submission) {
+        return submission.hasLegacyContent() || (submission.getCodeHash() == null && submission.getCode() != null);
+    }
+
+    private String cap(String value, int maxChars) {
+        if (value == null || value.length() <= maxChars) {
+            return value;
+        }
+        // Do not split a surrogate pair
+        int end = Character.isHighSurrogate(value.charAt(maxChars - 1)) ? maxChars - 1 : maxChars;
+        return value.substring(0, end);
+    }
+}
@@ -0,0 +1,245 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.CodeExecutionResult;
+import com.edi.backend.entity.Challenge;
+import com.edi.backend.entity.ChallengeTestCase;
+import com.edi.backend.entity.Difficulty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Turns a challenge's structured test cases into runnable programs. Each case becomes a call to a
+ * small harness that compares the input expression's result with the expected value structurally
+ * and prints "PASS #index name" or "FAIL #index name: reason". For difficulties listed in
+ * execution.sharding.difficulties the cases are dealt round-robin into up to
+ * execution.sharding.max-shards programs that run concurrently; their results are merged back into
+ * a single execution result.
+ */
+@Service
+public class TestCaseShardPlanner {
+
+    private static final int STATUS_ACCEPTED = 3;
+    private static final int STATUS_TIME_LIMIT_EXCEEDED = 5;
+    private static final int STATUS_COMPILATION_ERROR = 6;
+
+    // "add(2, 3) // Expected: 5"; a trailing semicolon on the call is dropped
+    private static final Pattern SAMPLE_LINE = Pattern.compile("(.+?);?\\s*//\\s*Expected:\\s*(.+)");
+
+    private static final String HARNESS = """
+            const __tests = { failFast: %s, failed: false };
+            function __runCase(index, name, actual, expected) {
+              if (__tests.failFast && __tests.failed) return;
+              let reason;
+              try {
+                const got = actual();
+                const want = expected();
+                if (JSON.stringify(got) === JSON.stringify(want)) {
+                  console.log('PASS #' + index + ' ' + name);
+                  return;
+                }
+                reason = 'expected ' + JSON.stringify(want) + ', got ' + JSON.stringify(got);
+              } catch (e) {
+                reason = e && e.message ? e.message : String(e);
+              }
+              __tests.failed = true;
+              console.log('FAIL #' + index + ' ' + name + ': ' + reason);
+            }
+            """;
+
+    private final ObjectMapper objectMapper;
+    private final FailFastTestPlanner failFastTestPlanner;
+    private final Set<Difficulty> shardedDifficulties;
+    private final int maxShards;
+    private final int minCasesPerShard;
+    private final ExecutorService shardDispatcher;
+
+    public TestCaseShardPlanner(
+            ObjectMapper objectMapper,
+            FailFastTestPlanner failFastTestPlanner,
+            @Value("${execution.sharding.difficulties:HARD}") List<Difficulty> shardedDifficulties,
+            @Value("${execution.sharding.max-shards:4}") int maxShards,
+            @Value("${execution.sharding.min-cases-per-shard:5}") int minCasesPerShard,
+            @Value("${execution.sharding.threads:16}") int threads
+    ) {
+        this.objectMapper = objectMapper;
+        this.failFastTestPlanner = failFastTestPlanner;
+        this.shardedDifficulties = shardedDifficulties.isEmpty()
+                ? EnumSet.noneOf(Difficulty.class)
+                : EnumSet.copyOf(shardedDifficulties);
+        this.maxShards = Math.max(1, maxShards);
+        this.minCasesPerShard = Math.max(1, minCasesPerShard);
+        this.shardDispatcher = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "test-shard-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the test blocks to append to the user's code, one per shard. Case indexes in the
+     * output are the cases' positions, whatever order the cases run in.
+     */
+    public List<String> buildShards(Challenge challenge, List<ChallengeTestCase> testCases) {
+        List<ChallengeTestCase> ordered = failFastTestPlanner.isEnabled()
+                ? failFastTestPlanner.orderByFailures(challenge.getId(), testCases, FailFastTestPlanner::caseIdOf)
+                : testCases;
+
+        int shardCount = 1;
+        if (shardedDifficulties.contains(challenge.getDifficulty())) {
+            shardCount = Math.min(maxShards, Math.max(1, ordered.size() / minCasesPerShard));
+        }
+
+        List<StringBuilder> shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new StringBuilder(HARNESS.formatted(failFastTestPlanner.isEnabled())));
+        }
+        for (int i = 0; i < ordered.size(); i++) {
+            appendCase(shards.get(i % shardCount), ordered.get(i));
+        }
+
+        return shards.stream().map(StringBuilder::toString).toList();
+    }
+
+    /**
+     * Reads the "call // Expected: value" lines of a challenge's sample tests as unsaved test cases
+     * numbered from 0. Lines without an expected value are skipped.
+     */
+    public List<ChallengeTestCase> parseSamples(Challenge challenge) {
+        if (challenge.getSampleTests() == null) {
+            return List.of();
+        }
+
+        List<ChallengeTestCase> samples = new ArrayList<>();
+        for (String line : challenge.getSampleTests().split("\n")) {
+            Matcher sample = SAMPLE_LINE.matcher(line.trim());
+            if (!sample.matches()) {
+                continue;
+            }
+            samples.add(ChallengeTestCase.builder()
+                    .challengeId(challenge.getId())
+                    .position(samples.size())
+                    .input(sample.group(1).trim())
+                    .expected(sample.group(2).trim())
+                    .build());
+        }
+        return samples;
+    }
+
+    /**
+     * Returns the block that runs the given sample cases, all of them and in order.
+     */
+    public String buildSampleProgram(List<ChallengeTestCase> samples) {
+        StringBuilder program = new StringBuilder(HARNESS.formatted(false));
+        samples.forEach(sample -> appendCase(program, sample));
+        return program.toString();
+    }
+
+    /**
+     * Starts every shard on the dispatcher pool, so executors whose executeAsync blocks the calling
+     * thread (plain Judge0) still run the shards side by side, and merges the results.
+     */
+    public CompletableFuture<CodeExecutionResult> runShards(
+            List<String> programs, Function<String, CompletableFuture<CodeExecutionResult>> runner) {
+        List<CompletableFuture<CodeExecutionResult>> shards = programs.stream()
+                .map(program -> CompletableFuture.supplyAsync(() -> runner.apply(program), shardDispatcher)
+                        .thenCompose(Function.identity()))
+                .toList();
+        return CompletableFuture.allOf(shards.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> merge(shards.stream().map(CompletableFuture::join).toList()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shardDispatcher.shutdownNow();
+    }
+
+    private void appendCase(StringBuilder program, ChallengeTestCase testCase) {
+        program.append("__runCase(")
+                .append(testCase.getPosition()).append(", ")
+                .append(jsString(labelOf(testCase))).append(", ")
+                .append("() => (").append(testCase.getInput()).append("), ")
+                .append("() => (").append(testCase.getExpected()).append("));\n");
+    }
+
+    static String labelOf(ChallengeTestCase testCase) {
+        return testCase.getName() != null && !testCase.getName().isBlank() ? testCase.getName() : testCase.getInput();
+    }
+
+    /**
+     * Merges shard results into one. A compile error or time limit in any shard decides the
+     * outcome; otherwise stdout is joined line-wise in shard order (a shard whose last line has no
+     * newline does not run into the next shard's first line) and time/memory are the maximum, since
+     * the shards ran side by side.
+     */
+    private CodeExecutionResult merge(List<CodeExecutionResult> results) {
+        if (results.size() == 1) {
+            return results.get(0);
+        }
+
+        CodeExecutionResult decisive = results.stream()
+                .filter(result -> !Objects.equals(result.getStatusId(), STATUS_ACCEPTED))
+                .min(Comparator.comparingInt(this::severity))
+                .orElse(results.get(0));
+
+        return CodeExecutionResult.builder()
+                .statusId(decisive.getStatusId())
+                .stdout(results.stream()
+                        .map(CodeExecutionResult::getStdout)
+                        .filter(Objects::nonNull)
+                        .map(stdout -> stdout.endsWith("\n") ? stdout.substring(0, stdout.length() - 1) : stdout)
+                        .collect(Collectors.joining("\n")))
+                .stderr(joinNonNull(results.stream().map(CodeExecutionResult::getStderr).toList()))
+                .compileOutput(decisive.getCompileOutput())
+                .time(results.stream()
+                        .map(CodeExecutionResult::getTime)
+                        .filter(Objects::nonNull)
+                        .max(Comparator.comparingDouble(Double::parseDouble))
+                        .orElse(null))
+                .memory(results.stream()
+                        .map(CodeExecutionResult::getMemory)
+                        .filter(Objects::nonNull)
+                        .max(Integer::compare)
+                        .orElse(null))
+                .build();
+    }
+
+    private int severity(CodeExecutionResult result) {
+        if (Objects.equals(result.getStatusId(), STATUS_COMPILATION_ERROR)) {
+            return 0;
+        }
+        if (Objects.equals(result.getStatusId(), STATUS_TIME_LIMIT_EXCEEDED)) {
+            return 1;
+        }
+        return 2;
+    }
+
+    private String joinNonNull(List<String> values) {
+        String joined = values.stream().filter(Objects::nonNull).collect(Collectors.joining("\n"));
+        return joined.isEmpty() ? null : joined;
+    }
+
+    private String jsString(String value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode test case name", e);
+        }
+    }
+}
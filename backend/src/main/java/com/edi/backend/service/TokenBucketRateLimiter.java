@@ -0,0 +1,173 @@
+package com.edi.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-user token buckets for the expensive endpoints: creating a submission and running sample
+ * tests (both run Judge0), and creating a challenge (calls Gemini). Each (user, endpoint) pair gets its own bucket whose capacity
+ * and refill rate depend on the user's role, so admins can generate challenges in bulk without
+ * lifting the limit for everyone. Buckets live in a ConcurrentHashMap, whose bins lock independently,
+ * and a take is a compare-and-set on the bucket's immutable state, so requests from different users
+ * never contend. Buckets untouched for rate-limit.idle-eviction-ms are dropped; by then they have
+ * refilled anyway.
+ */
+@Service
+@Slf4j
+public class TokenBucketRateLimiter {
+
+    private final boolean enabled;
+    private final long idleEvictionNanos;
+    private final Map<Endpoint, Limit> userLimits;
+    private final Map<Endpoint, Limit> adminLimits;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoTime;
+    private final Map<BucketKey, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenBucketRateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.idle-eviction-ms:600000}") long idleEvictionMs,
+            @Value("${rate-limit.submissions.user.capacity:10}") int submissionUserCapacity,
+            @Value("${rate-limit.submissions.user.refill-per-minute:10}") double submissionUserRefill,
+            @Value("${rate-limit.submissions.admin.capacity:60}") int submissionAdminCapacity,
+            @Value("${rate-limit.submissions.admin.refill-per-minute:60}") double submissionAdminRefill,
+            @Value("${rate-limit.samples.user.capacity:20}") int sampleUserCapacity,
+            @Value("${rate-limit.samples.user.refill-per-minute:20}") double sampleUserRefill,
+            @Value("${rate-limit.samples.admin.capacity:120}") int sampleAdminCapacity,
+            @Value("${rate-limit.samples.admin.refill-per-minute:120}") double sampleAdminRefill,
+            @Value("${rate-limit.challenges.user.capacity:3}") int challengeUserCapacity,
+            @Value("${rate-limit.challenges.user.refill-per-minute:1}") double challengeUserRefill,
+            @Value("${rate-limit.challenges.admin.capacity:30}") int challengeAdminCapacity,
+            @Value("${rate-limit.challenges.admin.refill-per-minute:10}") double challengeAdminRefill
+    ) {
+        this(meterRegistry, enabled, idleEvictionMs,
+                Map.of(
+                        Endpoint.SUBMISSIONS, new Limit(submissionUserCapacity, submissionUserRefill),
+                        Endpoint.SAMPLES, new Limit(sampleUserCapacity, sampleUserRefill),
+                        Endpoint.CHALLENGES, new Limit(challengeUserCapacity, challengeUserRefill)),
+                Map.of(
+                        Endpoint.SUBMISSIONS, new Limit(submissionAdminCapacity, submissionAdminRefill),
+                        Endpoint.SAMPLES, new Limit(sampleAdminCapacity, sampleAdminRefill),
+                        Endpoint.CHALLENGES, new Limit(challengeAdminCapacity, challengeAdminRefill)),
+                System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(MeterRegistry meterRegistry, boolean enabled, long idleEvictionMs,
+                           Map<Endpoint, Limit> userLimits, Map<Endpoint, Limit> adminLimits, LongSupplier nanoTime) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.idleEvictionNanos = TimeUnit.MILLISECONDS.toNanos(idleEvictionMs);
+        this.userLimits = userLimits;
+        this.adminLimits = adminLimits;
+        this.nanoTime = nanoTime;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes one token from the caller's bucket for the endpoint. A rejected take leaves the bucket
+     * as it was.
+     */
+    public Decision tryConsume(String principal, boolean admin, Endpoint endpoint) {
+        Limit limit = (admin ? adminLimits : userLimits).get(endpoint);
+        long now = nanoTime.getAsLong();
+        Bucket bucket = buckets.computeIfAbsent(new BucketKey(principal, endpoint), key -> new Bucket(limit, now));
+        Decision decision = bucket.tryConsume(limit, now);
+        if (!decision.allowed()) {
+            rejectedCounter(endpoint, admin).increment();
+        }
+        return decision;
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = nanoTime.getAsLong();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> now - bucket.state.get().updatedAt() > idleEvictionNanos);
+        int evicted = before - buckets.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    private Counter rejectedCounter(Endpoint endpoint, boolean admin) {
+        return meterRegistry.counter("rate-limit.rejected",
+                "endpoint", endpoint.tag, "role", admin ? "ADMIN" : "USER");
+    }
+
+    public enum Endpoint {
+        SUBMISSIONS("submissions"),
+        SAMPLES("samples"),
+        CHALLENGES("challenges");
+
+        private final String tag;
+
+        Endpoint(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Outcome of a take: the bucket's capacity, the whole tokens left after it, and for a rejected
+     * take the seconds until the next token.
+     */
+    public record Decision(boolean allowed, long limit, long remaining, long retryAfterSeconds) {
+    }
+
+    record Limit(int capacity, double refillPerMinute) {
+        private double refillPerNano() {
+            return refillPerMinute / TimeUnit.MINUTES.toNanos(1);
+        }
+    }
+
+    private record BucketKey(String principal, Endpoint endpoint) {
+    }
+
+    private record State(double tokens, long updatedAt) {
+    }
+
+    private static class Bucket {
+        private final AtomicReference<State> state;
+
+        private Bucket(Limit limit, long now) {
+            this.state = new AtomicReference<>(new State(limit.capacity(), now));
+        }
+
+        /**
+         * Refills for the time since the last update, then takes a token if one is there. The
+         * limit is passed in rather than kept so a role change applies from the next request.
+         */
+        private Decision tryConsume(Limit limit, long now) {
+            while (true) {
+                State current = state.get();
+                long elapsed = Math.max(0, now - current.updatedAt());
+                double tokens = Math.min(limit.capacity(), current.tokens() + elapsed * limit.refillPerNano());
+
+                if (tokens < 1) {
+                    long retryAfter = limit.refillPerMinute() > 0
+                            ? (long) Math.ceil((1 - tokens) / limit.refillPerNano() / TimeUnit.SECONDS.toNanos(1))
+                            : TimeUnit.MINUTES.toSeconds(1);
+                    return new Decision(false, limit.capacity(), 0, Math.max(1, retryAfter));
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.updatedAt())))) {
+                    return new Decision(true, limit.capacity(), (long) (tokens - 1), 0);
+                }
+            }
+        }
+    }
+}
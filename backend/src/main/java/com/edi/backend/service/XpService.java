@@ -0,0 +1,147 @@
+package com.edi.backend.service;
+
+import com.edi.backend.entity.Challenge;
+import com.edi.backend.entity.Difficulty;
+import com.edi.backend.repository.UserRepository;
+import com.edi.backend.repository.XpLedgerRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Awards XP for first solves. Every first solve is a row in xp_ledger, unique per user and
+ * challenge, so two accepted submissions racing for the same first solve insert one row between
+ * them and only the winner awards XP. Repeat solves are usually turned away by
+ * SolvedChallengeCache before the insert is tried. The award itself is an in-database increment of users.xp;
+ * nothing reads the user row first. With xp.write-behind.enabled=true the increments are collected
+ * per user after commit and applied every xp.write-behind.flush-interval-ms, one update per user,
+ * which keeps hot user rows free of lock contention during contests at the cost of losing up to one
+ * interval of XP (but not the ledger rows) on a crash. The leaderboard follows users.xp: it is
+ * updated after commit, or after the flush with write-behind.
+ */
+@Service
+@Slf4j
+public class XpService {
+
+    private final XpLedgerRepository xpLedgerRepository;
+    private final UserRepository userRepository;
+    private final LeaderboardService leaderboardService;
+    private final SolvedChallengeCache solvedChallengeCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean writeBehind;
+    private final Map<Long, Integer> pendingXp = new ConcurrentHashMap<>();
+
+    public XpService(
+            XpLedgerRepository xpLedgerRepository,
+            UserRepository userRepository,
+            LeaderboardService leaderboardService,
+            SolvedChallengeCache solvedChallengeCache,
+            JdbcTemplate jdbcTemplate,
+            @Value("${xp.write-behind.enabled:false}") boolean writeBehind
+    ) {
+        this.xpLedgerRepository = xpLedgerRepository;
+        this.userRepository = userRepository;
+        this.leaderboardService = leaderboardService;
+        this.solvedChallengeCache = solvedChallengeCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeBehind = writeBehind;
+    }
+
+    public static int xpFor(Difficulty difficulty) {
+        return switch (difficulty) {
+            case EASY -> 10;
+            case MEDIUM -> 25;
+            case HARD -> 50;
+        };
+    }
+
+    /**
+     * Records an accepted submission as the user's first solve of the challenge and awards its XP.
+     * Returns false, awarding nothing, when the challenge was already solved. Runs inside the
+     * caller's transaction.
+     */
+    public boolean awardFirstSolve(Long userId, Challenge challenge, Long submissionId) {
+        if (solvedChallengeCache.hasSolved(userId, challenge.getId())) {
+            return false;
+        }
+
+        int xp = xpFor(challenge.getDifficulty());
+        if (xpLedgerRepository.insertIfAbsent(userId, challenge.getId(), submissionId, xp) == 0) {
+            return false;
+        }
+
+        if (!writeBehind) {
+            userRepository.addXp(userId, xp);
+        }
+        AfterCommit.run(() -> applyCommitted(userId, challenge.getId(), xp));
+
+        log.info("Awarded {} XP to user {} for solving challenge {}", xp, userId, challenge.getId());
+        return true;
+    }
+
+    /**
+     * Solves from before the ledger existed count as first solves, so the ledger is seeded from
+     * accepted submissions once, while it is still empty. Their XP is already in users.xp. A failure
+     * here fails startup: with an unseeded ledger every earlier solve would be awarded again.
+     */
+    @PostConstruct
+    public void seedLedger() {
+        if (xpLedgerRepository.count() > 0) {
+            return;
+        }
+        String xpByDifficulty = Arrays.stream(Difficulty.values())
+                .map(difficulty -> "WHEN '" + difficulty.name() + "' THEN " + xpFor(difficulty))
+                .collect(Collectors.joining(" ", "CASE c.difficulty ", " END"));
+        int seeded = jdbcTemplate.update(
+                "INSERT INTO xp_ledger (user_id, challenge_id, submission_id, xp, awarded_at) "
+                        + "SELECT s.user_id, s.challenge_id, MIN(s.id), " + xpByDifficulty + ", MIN(s.created_at) "
+                        + "FROM submissions s JOIN challenges c ON c.id = s.challenge_id "
+                        + "WHERE s.status = 'ACCEPTED' "
+                        + "GROUP BY s.user_id, s.challenge_id, c.difficulty "
+                        + "ON CONFLICT DO NOTHING");
+        if (seeded > 0) {
+            log.info("Seeded XP ledger with {} earlier first solves", seeded);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${xp.write-behind.flush-interval-ms:1000}")
+    public void flushPendingXp() {
+        for (Long userId : List.copyOf(pendingXp.keySet())) {
+            Integer xp = pendingXp.remove(userId);
+            if (xp == null) {
+                continue;
+            }
+            try {
+                userRepository.addXp(userId, xp);
+                leaderboardService.addXp(userId, xp);
+            } catch (Exception e) {
+                log.warn("Failed to flush {} XP for user {}", xp, userId, e);
+                pendingXp.merge(userId, xp, Integer::sum);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushPendingXp();
+    }
+
+    private void applyCommitted(Long userId, Long challengeId, int xp) {
+        solvedChallengeCache.markSolved(userId, challengeId);
+        if (writeBehind) {
+            pendingXp.merge(userId, xp, Integer::sum);
+        } else {
+            leaderboardService.addXp(userId, xp);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+'use strict';
+
+// Long-lived worker for NodeWorkerPoolExecutor. Requests and responses are JSON documents framed
+// by a 4-byte big-endian length prefix on stdin/stdout. Each submission runs in a fresh vm context
+// with its own console, so nothing written by user code reaches the protocol stream. The context
+// drains its own microtask queue inside the time limit, so promises and async functions finish (or
+// time out) as part of the run instead of leaking into the next one.
+
+const util = require('util');
+const vm = require('vm');
+
+const STATUS_ACCEPTED = 3;
+const STATUS_TIME_LIMIT_EXCEEDED = 5;
+const STATUS_COMPILATION_ERROR = 6;
+const STATUS_RUNTIME_ERROR = 11;
+
+let pending = Buffer.alloc(0);
+let current = null;
+
+// A rejected promise nobody handled fails the run, as it would fail a plain `node main.js`,
+// instead of taking the worker down
+process.on('unhandledRejection', (reason) => {
+  if (current) {
+    current.statusId = STATUS_RUNTIME_ERROR;
+    current.stderr = (current.stderr || '') + 'Uncaught ' + userStack(reason) + '\n';
+  }
+});
+
+process.stdin.on('data', (chunk) => {
+  pending = Buffer.concat([pending, chunk]);
+  while (pending.length >= 4) {
+    const length = pending.readUInt32BE(0);
+    if (pending.length < 4 + length) {
+      return;
+    }
+    const request = JSON.parse(pending.subarray(4, 4 + length).toString('utf8'));
+    pending = pending.subarray(4 + length);
+    const baseline = activeResources();
+    const response = run(request);
+    current = response;
+    // Reply only once this turn's microtasks and rejections are processed, so anything that escaped
+    // the context still counts against this run; work left behind after that means the worker must
+    // not be reused
+    setImmediate(() => {
+      current = null;
+      if (activeResources() > baseline) {
+        response.recycle = true;
+      }
+      respond(response);
+    });
+  }
+});
+
+process.stdin.on('end', () => process.exit(0));
+
+function run(request) {
+  const stdout = [];
+  const stderr = [];
+  const capture = (lines) => (...args) => lines.push(util.format(...args));
+  const sandbox = {
+    console: {
+      log: capture(stdout),
+      info: capture(stdout),
+      debug: capture(stdout),
+      warn: capture(stderr),
+      error: capture(stderr),
+    },
+  };
+
+  const started = process.hrtime.bigint();
+  let statusId = STATUS_ACCEPTED;
+  let compileOutput = null;
+
+  let script;
+  try {
+    script = new vm.Script(request.source, { filename: 'main.js' });
+  } catch (error) {
+    return result(STATUS_COMPILATION_ERROR, stdout, stderr, userStack(error), started);
+  }
+
+  const context = vm.createContext(sandbox, {
+    codeGeneration: { strings: false, wasm: false },
+    microtaskMode: 'afterEvaluate',
+  });
+  let timedOut = false;
+  try {
+    script.runInContext(context, { timeout: request.timeoutMs });
+  } catch (error) {
+    if (error && error.code === 'ERR_SCRIPT_EXECUTION_TIMEOUT') {
+      statusId = STATUS_TIME_LIMIT_EXCEEDED;
+      // An interrupted microtask drain leaves its queue behind; never hand this worker out again
+      timedOut = true;
+    } else {
+      statusId = STATUS_RUNTIME_ERROR;
+      stderr.push(userStack(error));
+    }
+  }
+
+  const response = result(statusId, stdout, stderr, compileOutput, started);
+  response.recycle = timedOut;
+  return response;
+}
+
+// Timers, immediates and handles the worker holds besides its own stdin/stdout
+function activeResources() {
+  return process.getActiveResourcesInfo().length;
+}
+
+// Drops the worker's own frames so the trace looks like a plain `node main.js` run
+function userStack(error) {
+  const lines = String(error && error.stack || error).split('\n');
+  const internal = lines.findIndex((line) => line.includes('node:vm:'));
+  return (internal === -1 ? lines : lines.slice(0, internal)).join('\n');
+}
+
+function result(statusId, stdout, stderr, compileOutput, started) {
+  const seconds = Number(process.hrtime.bigint() - started) / 1e9;
+  return {
+    statusId,
+    stdout: stdout.length ? stdout.join('\n') + '\n' : '',
+    stderr: stderr.length ? stderr.join('\n') + '\n' : null,
+    compileOutput,
+    time: seconds.toFixed(3),
+    // Resident size of the whole worker, used to recycle bloated workers; not the run's own usage
+    workerRssKb: Math.round(process.memoryUsage().rss / 1024),
+  };
+}
+
+function respond(response) {
+  const payload = Buffer.from(JSON.stringify(response), 'utf8');
+  const header = Buffer.alloc(4);
+  header.writeUInt32BE(payload.length, 0);
+  process.stdout.write(Buffer.concat([header, payload]));
+}
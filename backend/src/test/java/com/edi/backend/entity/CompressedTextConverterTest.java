@@ -0,0 +1,83 @@
+package com.edi.backend.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompressedTextConverterTest {
+
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+
+    @Test
+    void nullStaysNull() {
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+
+    @Test
+    void emptyTextRoundTrips() {
+        byte[] stored = converter.convertToDatabaseColumn("");
+
+        assertThat(stored).containsExactly(CompressedTextConverter.PLAIN);
+        assertThat(converter.convertToEntityAttribute(stored)).isEmpty();
+        assertThat(converter.convertToEntityAttribute(new byte[0])).isEmpty();
+    }
+
+    @Test
+    void textBelowTheThresholdIsStoredPlain() {
+        String text = "a".repeat(255);
+
+        byte[] stored = converter.convertToDatabaseColumn(text);
+
+        assertThat(stored[0]).isEqualTo(CompressedTextConverter.PLAIN);
+        assertThat(stored).hasSize(256);
+        assertThat(converter.convertToEntityAttribute(stored)).isEqualTo(text);
+    }
+
+    @Test
+    void textFromTheThresholdUpIsDeflated() {
+        String text = "console.log('PASS: test case');\n".repeat(8);
+
+        byte[] stored = converter.convertToDatabaseColumn(text);
+
+        assertThat(text.getBytes(StandardCharsets.UTF_8)).hasSize(256);
+        assertThat(stored[0]).isEqualTo(CompressedTextConverter.DEFLATE);
+        assertThat(stored.length).isLessThan(256);
+        assertThat(converter.convertToEntityAttribute(stored)).isEqualTo(text);
+    }
+
+    @Test
+    void nonAsciiTextRoundTripsAndTheThresholdCountsBytes() {
+        String shortText = "héllo wörld ✓ 日本語 😀";
+        // 100 characters but 300 UTF-8 bytes, so it is past the threshold
+        String longText = "日".repeat(100);
+
+        byte[] shortStored = converter.convertToDatabaseColumn(shortText);
+        byte[] longStored = converter.convertToDatabaseColumn(longText);
+
+        assertThat(shortStored[0]).isEqualTo(CompressedTextConverter.PLAIN);
+        assertThat(converter.convertToEntityAttribute(shortStored)).isEqualTo(shortText);
+        assertThat(longStored[0]).isEqualTo(CompressedTextConverter.DEFLATE);
+        assertThat(converter.convertToEntityAttribute(longStored)).isEqualTo(longText);
+    }
+
+    @Test
+    void unmarkedLegacyValuesAreReadAsPlainText() {
+        String legacy = "function sum(a, b) { return a + b; } // ✓";
+
+        assertThat(converter.convertToEntityAttribute(legacy.getBytes(StandardCharsets.UTF_8))).isEqualTo(legacy);
+    }
+
+    @Test
+    void corruptDeflatedValuesFailLoudly() {
+        byte[] stored = converter.convertToDatabaseColumn("x".repeat(1000));
+        byte[] truncated = Arrays.copyOf(stored, stored.length / 2);
+
+        assertThatThrownBy(() -> converter.convertToEntityAttribute(truncated))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,73 @@
+package com.edi.backend.security;
+
+import com.edi.backend.service.TokenBucketRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RateLimitFilterTest {
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        // Two submissions, refilled at one per minute
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(new SimpleMeterRegistry(), true, 600_000,
+                2, 1, 60, 60, 20, 20, 120, 120, 3, 1, 30, 10);
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter, new ObjectMapper().findAndRegisterModules());
+        mockMvc = MockMvcBuilders.standaloneSetup(new SubmissionsController()).addFilters(filter).build();
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("alice", null, "ROLE_USER"));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void overLimitSubmissionGets429WithRetryAfter() throws Exception {
+        mockMvc.perform(post("/api/submissions"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(RateLimitFilter.LIMIT_HEADER, "2"))
+                .andExpect(header().string(RateLimitFilter.REMAINING_HEADER, "1"));
+        mockMvc.perform(post("/api/submissions"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(RateLimitFilter.REMAINING_HEADER, "0"));
+
+        mockMvc.perform(post("/api/submissions"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(RateLimitFilter.LIMIT_HEADER, "2"))
+                .andExpect(header().string(RateLimitFilter.REMAINING_HEADER, "0"))
+                .andExpect(header().string("Retry-After", "60"))
+                .andExpect(jsonPath("$.status").value(429))
+                .andExpect(jsonPath("$.path").value("/api/submissions"));
+
+        // Other endpoints have their own bucket
+        mockMvc.perform(post("/api/submissions/samples"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(RateLimitFilter.LIMIT_HEADER, "20"));
+    }
+
+    @RestController
+    private static class SubmissionsController {
+
+        @PostMapping({"/api/submissions", "/api/submissions/samples"})
+        ResponseEntity<Void> submit() {
+            return ResponseEntity.ok().build();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.CodeExecutionResult;
+import com.edi.backend.exception.CodeExecutionException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void executorFailuresBackOff() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 2, 200);
+
+        run(limiter, 100, null, new CodeExecutionException("Judge0 unavailable"));
+        assertThat(limiter.getLimit()).isEqualTo(18);
+
+        run(limiter, 100, result(13, "0.01"), null);
+        assertThat(limiter.getLimit()).isEqualTo(16);
+    }
+
+    @Test
+    void sandboxOverheadAboveTheTargetBacksOff() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 2, 200);
+
+        // 4.5 s wall for 0.1 s of CPU: the run waited in Judge0, not in the program
+        run(limiter, 4500, result(3, "0.100"), null);
+
+        assertThat(limiter.getLimit()).isEqualTo(18);
+    }
+
+    @Test
+    void timeLimitsAndUserErrorsAreNotOverload() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 2, 200);
+
+        for (int i = 0; i < 10; i++) {
+            run(limiter, 5300, result(5, "5.000"), null);
+            run(limiter, 200, result(11, "0.050"), null);
+            run(limiter, 200, result(6, null), null);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void cacheHitsAreNotSamples() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 2, 200);
+        long retryAfter = limiter.retryAfterSeconds(100);
+
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquireOrReject();
+        now.addAndGet(60_000 * MILLIS);
+        permit.release(result(3, "0.010"), null);
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(limiter.retryAfterSeconds(100)).isEqualTo(retryAfter);
+    }
+
+    @Test
+    void growsByOnePerWindowOfHealthyRunsUpToTheMax() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 2, 6);
+        List<AdaptiveConcurrencyLimiter.Permit> held = holdPermits(limiter, 3);
+
+        for (int i = 0; i < 3; i++) {
+            run(limiter, 100, result(3, "0.050"), null);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        run(limiter, 100, result(3, "0.050"), null);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+
+        for (int i = 0; i < 5; i++) {
+            run(limiter, 100, result(3, "0.050"), null);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(6);
+
+        for (int i = 0; i < 20; i++) {
+            run(limiter, 100, result(3, "0.050"), null);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(6);
+        held.forEach(permit -> permit.release(null, null));
+    }
+
+    @Test
+    void doesNotGrowWhileMostOfTheLimitIsUnused() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 2, 200);
+
+        for (int i = 0; i < 50; i++) {
+            run(limiter, 100, result(3, "0.050"), null);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void backoffStopsAtTheMinAndResetsTheWindow() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 3, 10);
+        List<AdaptiveConcurrencyLimiter.Permit> held = holdPermits(limiter, 2);
+
+        run(limiter, 100, result(3, "0.050"), null);
+        run(limiter, 100, result(3, "0.050"), null);
+        for (int i = 0; i < 5; i++) {
+            run(limiter, 100, null, new CodeExecutionException("down"));
+        }
+        assertThat(limiter.getLimit()).isEqualTo(3);
+
+        // The two healthy runs before the backoff no longer count towards the next increase
+        run(limiter, 100, result(3, "0.050"), null);
+        run(limiter, 100, result(3, "0.050"), null);
+        assertThat(limiter.getLimit()).isEqualTo(3);
+        run(limiter, 100, result(3, "0.050"), null);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        held.forEach(permit -> permit.release(null, null));
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initial, int min, int max) {
+        return new AdaptiveConcurrencyLimiter(new SimpleMeterRegistry(), true, initial, min, max, 4000, 0.9, now::get);
+    }
+
+    private void run(AdaptiveConcurrencyLimiter limiter, long wallMs, CodeExecutionResult result, Throwable error) {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquireOrReject();
+        permit.markExecuted();
+        now.addAndGet(wallMs * MILLIS);
+        permit.release(result, error);
+    }
+
+    private static List<AdaptiveConcurrencyLimiter.Permit> holdPermits(AdaptiveConcurrencyLimiter limiter, int count)
+            throws InterruptedException {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            permits.add(limiter.acquire());
+        }
+        return permits;
+    }
+
+    private static CodeExecutionResult result(int statusId, String time) {
+        return CodeExecutionResult.builder().statusId(statusId).time(time).build();
+    }
+}
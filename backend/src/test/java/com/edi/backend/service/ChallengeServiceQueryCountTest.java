@@ -0,0 +1,121 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.ChallengeSummaryResponse;
+import com.edi.backend.dto.CursorPageResponse;
+import com.edi.backend.dto.PageResponse;
+import com.edi.backend.entity.Challenge;
+import com.edi.backend.entity.Difficulty;
+import com.edi.backend.exception.InvalidCursorException;
+import com.edi.backend.repository.ChallengeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ChallengeServiceQueryCountTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private ChallengeService challengeService;
+
+    @Autowired
+    private ChallengeRepository challengeRepository;
+
+    @Autowired
+    private ChallengeCountCache challengeCountCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Challenge> challenges = new ArrayList<>();
+        for (int i = challengeRepository.findAllTitles().size(); i < PAGE_SIZE * 2; i++) {
+            challenges.add(Challenge.builder()
+                    .title("Query count " + i)
+                    .description("x".repeat(500))
+                    .difficulty(Difficulty.EASY)
+                    .tags(new ArrayList<>(List.of("arrays", "tag-" + i)))
+                    .starterCode("function solve() {}")
+                    .hiddenTests("console.log(solve());")
+                    .build());
+        }
+        challengeRepository.saveAll(challenges);
+    }
+
+    @Test
+    void summaryPageUsesConstantNumberOfQueries() {
+        challengeCountCache.invalidate();
+        challengeService.getAllChallenges(0, PAGE_SIZE, "createdAt");
+
+        statistics.clear();
+        PageResponse<ChallengeSummaryResponse> page = challengeService.getAllChallenges(0, PAGE_SIZE, "createdAt");
+        long summaryQueries = statistics.getPrepareStatementCount();
+
+        // What the listing used to do: load full entities, then their eagerly fetched tags
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> challengeRepository
+                .findAll(PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt")))
+                .forEach(challenge -> challenge.getTags().size()));
+        long entityQueries = statistics.getPrepareStatementCount();
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getContent()).allSatisfy(summary -> {
+            assertThat(summary.getTags()).isNotEmpty();
+            assertThat(summary.getDescriptionPreview().length())
+                    .isLessThanOrEqualTo(ChallengeRepository.ChallengeSummary.DESCRIPTION_PREVIEW_LENGTH);
+        });
+        // Page and one batch of tags; the total is the cached count
+        assertThat(summaryQueries).isEqualTo(2);
+        assertThat(page.getTotalElements()).isEqualTo(challengeRepository.count());
+        assertThat(entityQueries).isGreaterThanOrEqualTo(PAGE_SIZE + 2);
+    }
+
+    @Test
+    void cursorPagesVisitEveryChallengeOnceWithoutCounting() {
+        challengeCountCache.invalidate();
+        long total = challengeRepository.count();
+        challengeCountCache.get();
+
+        for (String sortBy : List.of("createdAt", "title")) {
+            Set<Long> seen = new HashSet<>();
+            String cursor = null;
+            CursorPageResponse<ChallengeSummaryResponse> page;
+            do {
+                statistics.clear();
+                page = challengeService.scrollChallenges(cursor, 7, sortBy);
+                assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+                assertThat(page.getTotalElements()).isEqualTo(total);
+                page.getContent().forEach(summary -> assertThat(seen.add(summary.getId())).isTrue());
+                cursor = page.getNextCursor();
+            } while (page.isHasNext());
+            assertThat(seen).hasSize((int) total);
+        }
+
+        String titleCursor = challengeService.scrollChallenges(null, 7, "title").getNextCursor();
+        assertThatThrownBy(() -> challengeService.scrollChallenges(titleCursor, 7, "createdAt"))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+}
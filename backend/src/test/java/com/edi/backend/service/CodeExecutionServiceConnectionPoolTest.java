@@ -0,0 +1,106 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.CodeExecutionResult;
+import com.edi.backend.dto.SubmissionResponse;
+import com.edi.backend.entity.Challenge;
+import com.edi.backend.entity.Difficulty;
+import com.edi.backend.entity.Role;
+import com.edi.backend.entity.SubmissionStatus;
+import com.edi.backend.entity.User;
+import com.edi.backend.repository.ChallengeRepository;
+import com.edi.backend.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(
+        properties = {
+                "spring.datasource.hikari.maximum-pool-size=2",
+                "spring.datasource.hikari.connection-timeout=1000"
+        }
+)
+class CodeExecutionServiceConnectionPoolTest {
+
+    private static final int SUBMISSIONS = 4;
+
+    @Autowired
+    private CodeExecutionService codeExecutionService;
+
+    @Autowired
+    private ChallengeRepository challengeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    @MockitoBean
+    private CodeExecutor codeExecutor;
+
+    @Test
+    void slowExecutionsDoNotHoldPooledConnections() throws Exception {
+        CountDownLatch started = new CountDownLatch(SUBMISSIONS);
+        CountDownLatch release = new CountDownLatch(1);
+        when(codeExecutor.execute(anyString(), anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return CodeExecutionResult.builder().statusId(3).stdout("PASS: ok\n").time("0.05").memory(1024).build();
+        });
+
+        User user = userRepository.save(User.builder()
+                .username("pool-test")
+                .email("pool-test@codifai.com")
+                .password("secret")
+                .role(Role.USER)
+                .xp(0)
+                .build());
+        Challenge challenge = challengeRepository.save(Challenge.builder()
+                .title("Pool test")
+                .description("Return the answer")
+                .difficulty(Difficulty.MEDIUM)
+                .starterCode("function answer() {}")
+                .hiddenTests("console.log('PASS: ok')")
+                .tags(List.of("test"))
+                .build());
+
+        // More slow submissions than the pool has connections
+        ExecutorService callers = Executors.newFixedThreadPool(SUBMISSIONS);
+        List<CompletableFuture<SubmissionResponse>> submissions = new ArrayList<>();
+        for (int i = 0; i < SUBMISSIONS; i++) {
+            String code = "function answer() { return " + i + "; }";
+            submissions.add(CompletableFuture.supplyAsync(
+                    () -> codeExecutionService.evaluateSubmission(user.getId(), challenge.getId(), code), callers));
+        }
+
+        try {
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(dataSource.getHikariPoolMXBean().getActiveConnections()).isZero();
+            long start = System.nanoTime();
+            assertThat(challengeRepository.findAll()).isNotEmpty();
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(500);
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+
+        for (CompletableFuture<SubmissionResponse> submission : submissions) {
+            assertThat(submission.get(10, TimeUnit.SECONDS).getStatus()).isEqualTo(SubmissionStatus.ACCEPTED);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.edi.backend.service;
+
+import com.edi.backend.service.ExecutionLaneQueue.Lane;
+import com.edi.backend.service.ExecutionLaneQueue.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecutionLaneQueueTest {
+
+    private final List<String> ran = new ArrayList<>();
+
+    @Test
+    void takesGradedPerSampleGradedRunsForEverySampleRun() {
+        ExecutionLaneQueue queue = new ExecutionLaneQueue(100, 50, 2);
+        for (int i = 0; i < 6; i++) {
+            queue.offer(task(Lane.GRADED, (long) i, 1, "G"));
+        }
+        for (int i = 0; i < 3; i++) {
+            queue.offer(task(Lane.SAMPLE, (long) i, 1, "S"));
+        }
+
+        runAll(queue);
+
+        assertThat(ran).containsExactly("G", "G", "S", "G", "G", "S", "G", "G", "S");
+    }
+
+    @Test
+    void sampleLaneRunsAloneWhenNoGradedWorkWaits() {
+        ExecutionLaneQueue queue = new ExecutionLaneQueue(100, 50, 4);
+        queue.offer(task(Lane.SAMPLE, 1L, 1, "S1"));
+        queue.offer(task(Lane.SAMPLE, 2L, 1, "S2"));
+
+        runAll(queue);
+
+        assertThat(ran).containsExactly("S1", "S2");
+    }
+
+    @Test
+    void usersTakeTurnsOfTheirWeight() {
+        ExecutionLaneQueue queue = new ExecutionLaneQueue(100, 50, 4);
+        for (int i = 1; i <= 5; i++) {
+            queue.offer(task(Lane.GRADED, 1L, 2, "a" + i));
+        }
+        for (int i = 1; i <= 3; i++) {
+            queue.offer(task(Lane.GRADED, 2L, 1, "b" + i));
+        }
+
+        runAll(queue);
+
+        assertThat(ran).containsExactly("a1", "a2", "b1", "a3", "a4", "b2", "a5", "b3");
+    }
+
+    @Test
+    void userRejoinsAtTheBackAfterTheirQueueEmpties() {
+        ExecutionLaneQueue queue = new ExecutionLaneQueue(100, 50, 4);
+        queue.offer(task(Lane.GRADED, 1L, 1, "a1"));
+        queue.offer(task(Lane.GRADED, 2L, 1, "b1"));
+        queue.offer(task(Lane.GRADED, 2L, 1, "b2"));
+
+        queue.poll().run();
+        queue.offer(task(Lane.GRADED, 1L, 1, "a2"));
+        runAll(queue);
+
+        assertThat(ran).containsExactly("a1", "b1", "a2", "b2");
+    }
+
+    @Test
+    void sampleLaneHasItsOwnCapacityWithinTheTotal() {
+        ExecutionLaneQueue queue = new ExecutionLaneQueue(5, 2, 4);
+
+        assertThat(queue.offer(task(Lane.SAMPLE, 1L, 1, "S1"))).isTrue();
+        assertThat(queue.offer(task(Lane.SAMPLE, 2L, 1, "S2"))).isTrue();
+        assertThat(queue.offer(task(Lane.SAMPLE, 3L, 1, "S3"))).isFalse();
+        assertThat(queue.remainingCapacity(Lane.SAMPLE)).isZero();
+        assertThat(queue.remainingCapacity(Lane.GRADED)).isEqualTo(3);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(queue.offer(task(Lane.GRADED, (long) i, 1, "G" + i))).isTrue();
+        }
+        assertThat(queue.offer(task(Lane.GRADED, 9L, 1, "G9"))).isFalse();
+        assertThat(queue.remainingCapacity()).isZero();
+        assertThat(queue.size()).isEqualTo(5);
+
+        queue.poll();
+        assertThat(queue.remainingCapacity(Lane.GRADED)).isEqualTo(1);
+        assertThat(queue.remainingCapacity(Lane.SAMPLE)).isZero();
+    }
+
+    @Test
+    void removingTheRestOfTheCurrentUsersTasksPassesTheTurnOn() {
+        ExecutionLaneQueue queue = new ExecutionLaneQueue(100, 50, 4);
+        Task a2 = task(Lane.GRADED, 1L, 3, "a2");
+        Task a3 = task(Lane.GRADED, 1L, 3, "a3");
+        queue.offer(task(Lane.GRADED, 1L, 3, "a1"));
+        queue.offer(a2);
+        queue.offer(a3);
+        queue.offer(task(Lane.GRADED, 2L, 1, "b1"));
+
+        // a1 makes user 1 current with credit left for a2 and a3
+        queue.poll().run();
+        assertThat(queue.remove(a2)).isTrue();
+        assertThat(queue.remove(a3)).isTrue();
+        assertThat(queue.remove(a3)).isFalse();
+        assertThat(queue.size()).isEqualTo(1);
+
+        runAll(queue);
+        queue.offer(task(Lane.GRADED, 1L, 3, "a4"));
+        runAll(queue);
+
+        assertThat(ran).containsExactly("a1", "b1", "a4");
+        assertThat(queue.poll()).isNull();
+    }
+
+    @Test
+    void removingAWaitingUsersLastTaskDropsThemFromTheRotation() {
+        ExecutionLaneQueue queue = new ExecutionLaneQueue(100, 50, 4);
+        Task b1 = task(Lane.GRADED, 2L, 1, "b1");
+        queue.offer(task(Lane.GRADED, 1L, 1, "a1"));
+        queue.offer(b1);
+        queue.offer(task(Lane.GRADED, 3L, 1, "c1"));
+
+        assertThat(queue.remove(b1)).isTrue();
+        runAll(queue);
+
+        assertThat(ran).containsExactly("a1", "c1");
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void drainToTakesTasksInSchedulingOrder() {
+        ExecutionLaneQueue queue = new ExecutionLaneQueue(100, 50, 1);
+        queue.offer(task(Lane.GRADED, 1L, 1, "a1"));
+        queue.offer(task(Lane.GRADED, 1L, 1, "a2"));
+        queue.offer(task(Lane.SAMPLE, 2L, 1, "S1"));
+        queue.offer(() -> ran.add("plain"));
+
+        List<Runnable> drained = new ArrayList<>();
+        assertThat(queue.drainTo(drained, 3)).isEqualTo(3);
+        assertThat(queue.drainTo(drained)).isEqualTo(1);
+        drained.forEach(Runnable::run);
+
+        // The plain runnable is queued as graded work of user 0, which takes its turn after user 1
+        assertThat(ran).containsExactly("a1", "S1", "plain", "a2");
+        assertThat(queue.isEmpty()).isTrue();
+    }
+
+    @Test
+    void servesAsTheWorkQueueOfAThreadPoolExecutor() throws Exception {
+        ExecutionLaneQueue queue = new ExecutionLaneQueue(100, 50, 2);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, queue);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(7);
+        List<String> order = new ArrayList<>();
+
+        // Occupy the only worker so everything after it waits in the queue
+        executor.execute(new Task(Lane.GRADED, 9L, 1, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        for (String name : List.of("G1", "G2", "G3", "G4")) {
+            executor.execute(new Task(Lane.GRADED, 1L, 4, recording(order, name, done)));
+        }
+        for (String name : List.of("S1", "S2", "S3")) {
+            executor.execute(new Task(Lane.SAMPLE, 2L, 4, recording(order, name, done)));
+        }
+        release.countDown();
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+        assertThat(order).containsExactly("G1", "G2", "S1", "G3", "G4", "S2", "S3");
+    }
+
+    private Task task(Lane lane, Long userId, int weight, String name) {
+        return new Task(lane, userId, weight, () -> ran.add(name));
+    }
+
+    private static Runnable recording(List<String> order, String name, CountDownLatch done) {
+        return () -> {
+            synchronized (order) {
+                order.add(name);
+            }
+            done.countDown();
+        };
+    }
+
+    private static void runAll(ExecutionLaneQueue queue) {
+        Runnable next;
+        while ((next = queue.poll()) != null) {
+            next.run();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.edi.backend.service;
+
+import com.edi.backend.entity.Challenge;
+import com.edi.backend.repository.TestCaseFailureStatRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class FailFastTestPlannerTest {
+
+    private static final Pattern CASE_ID = Pattern.compile("__failFast.current = '([0-9a-f]+)'");
+    private static final String HIDDEN_TESTS = """
+            const expect = (a, b) => console.log(a === b ? 'PASS' : 'FAIL');
+            expect(sum(1, 2), 3);
+            expect(sum(2, 2), 4);
+            """;
+
+    private final FailFastTestPlanner planner = new FailFastTestPlanner(mock(TestCaseFailureStatRepository.class), true);
+    private final Challenge challenge = Challenge.builder().id(7L).hiddenTests(HIDDEN_TESTS).build();
+
+    @Test
+    void splitStatementsKeepsMultiLineStatementsTogether() {
+        String source = """
+                const cases = [
+                  [1, 2],
+                  [3, 4],
+                ];
+                // a comment with an open bracket (
+                expect(sum(1, 2), 3)
+                expect(promise
+                  .then(x => x)
+                  .catch(() => null), 'ok');
+                """;
+
+        assertThat(FailFastTestPlanner.splitStatements(source)).containsExactly(
+                "const cases = [\n  [1, 2],\n  [3, 4],\n];",
+                "// a comment with an open bracket (\nexpect(sum(1, 2), 3)",
+                "expect(promise\n  .then(x => x)\n  .catch(() => null), 'ok');");
+    }
+
+    @Test
+    void splitStatementsIgnoresBracketsInStringsAndComments() {
+        String source = """
+                expect(format('(['), "{");
+                /* a block comment
+                   spanning { lines */
+                expect(`a template
+                with ${'('} inside`, 'x');
+                """;
+
+        assertThat(FailFastTestPlanner.splitStatements(source)).containsExactly(
+                "expect(format('(['), \"{\");",
+                "/* a block comment\n   spanning { lines */",
+                "expect(`a template\nwith ${'('} inside`, 'x');");
+    }
+
+    @Test
+    void splitStatementsReturnsUnbalancedSourceUnchanged() {
+        String source = "expect(sum(1, 2), 3);\nexpect(sum(2, 2), 4;\n";
+
+        assertThat(FailFastTestPlanner.splitStatements(source)).containsExactly(source);
+    }
+
+    @Test
+    void onlyTheFinalMarkerLineIsCountedAndStripped() {
+        List<String> ids = plannedIds();
+        String stdout = "PASS\nFAIL\n#codifai-failed-case " + ids.get(1) + "\n";
+
+        assertThat(planner.recordOutcome(challenge, stdout)).isEqualTo("PASS\nFAIL\n");
+        assertThat(planner.orderByFailures(7L, ids, id -> id)).containsExactly(ids.get(1), ids.get(0));
+    }
+
+    @Test
+    void markerLinesPrintedBeforeTheEndStayInStdoutAndCountForNothing() {
+        List<String> ids = plannedIds();
+        String stdout = "#codifai-failed-case " + ids.get(1) + "\nPASS\nPASS\n";
+
+        assertThat(planner.recordOutcome(challenge, stdout)).isEqualTo(stdout);
+        // A forged marker before the real one is also left alone
+        String forged = "#codifai-failed-case " + ids.get(1) + "\nFAIL\n#codifai-failed-case " + ids.get(0);
+        assertThat(planner.recordOutcome(challenge, forged)).isEqualTo("#codifai-failed-case " + ids.get(1) + "\nFAIL\n");
+        assertThat(planner.orderByFailures(7L, ids, id -> id)).containsExactly(ids.get(0), ids.get(1));
+    }
+
+    @Test
+    void unknownCaseIdsAreStrippedButNotCounted() {
+        List<String> ids = plannedIds();
+
+        assertThat(planner.recordOutcome(challenge, "FAIL\n#codifai-failed-case deadbeefdeadbeef\n")).isEqualTo("FAIL\n");
+        planner.recordOutcome(challenge, "FAIL\n#codifai-failed-case " + ids.get(1));
+
+        assertThat(planner.orderByFailures(7L, List.of("deadbeefdeadbeef", ids.get(0), ids.get(1)), id -> id))
+                .containsExactly(ids.get(1), "deadbeefdeadbeef", ids.get(0));
+    }
+
+    @Test
+    void challengesThatRunUnchangedAcceptNoMarker() {
+        Challenge single = Challenge.builder().id(8L).hiddenTests("expect(sum(1, 2), 3);").build();
+        String stdout = "FAIL\n#codifai-failed-case " + plannedIds().get(0) + "\n";
+
+        assertThat(planner.prepareHiddenTests(single)).isEqualTo("expect(sum(1, 2), 3);");
+        assertThat(planner.recordOutcome(single, stdout)).isEqualTo("FAIL\n");
+        assertThat(planner.orderByFailures(8L, List.of("a", plannedIds().get(0)), id -> id))
+                .containsExactly("a", plannedIds().get(0));
+    }
+
+    private List<String> plannedIds() {
+        Matcher matcher = CASE_ID.matcher(planner.prepareHiddenTests(challenge));
+        return matcher.results().map(result -> result.group(1)).toList();
+    }
+}
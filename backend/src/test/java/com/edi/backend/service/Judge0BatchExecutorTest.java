@@ -0,0 +1,131 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.CodeExecutionResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class Judge0BatchExecutorTest {
+
+    private static final int MAX_BATCH_SIZE = 4;
+    // Far longer than the test may take, so only a full batch can trigger a flush
+    private static final long WINDOW_MS = 60_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final Map<String, String> stdinByToken = new ConcurrentHashMap<>();
+    private final AtomicInteger nextToken = new AtomicInteger();
+    private final ExecutorService callers = Executors.newFixedThreadPool(MAX_BATCH_SIZE);
+    private HttpServer judge0;
+    private Judge0BatchExecutor executor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        judge0 = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        judge0.createContext("/submissions/batch", this::handle);
+        judge0.start();
+
+        String baseUrl = "http://localhost:" + judge0.getAddress().getPort();
+        Judge0ConnectionPool connectionPool = mock(Judge0ConnectionPool.class);
+        when(connectionPool.webClient(anyString())).thenAnswer(invocation -> WebClient.create(invocation.getArgument(0)));
+        executor = new Judge0BatchExecutor(new Judge0Service(connectionPool, baseUrl, 63, 10_000),
+                connectionPool, meterRegistry, baseUrl, 10_000, WINDOW_MS, MAX_BATCH_SIZE, 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        callers.shutdownNow();
+        judge0.stop(0);
+    }
+
+    @Test
+    void fullBatchIsSentBeforeTheWindowAndResultsReachTheirCallers() {
+        List<CompletableFuture<CodeExecutionResult>> runs = new ArrayList<>();
+        for (int i = 0; i < MAX_BATCH_SIZE; i++) {
+            String stdin = "caller-" + i;
+            runs.add(CompletableFuture.supplyAsync(() -> executor.execute("console.log(1)", stdin), callers));
+        }
+
+        List<String> stdouts = runs.stream()
+                .map(run -> run.orTimeout(5, TimeUnit.SECONDS).join().getStdout())
+                .toList();
+
+        assertThat(batchSizes).containsExactly(MAX_BATCH_SIZE);
+        assertThat(stdouts).containsExactly("caller-0", "caller-1", "caller-2", "caller-3");
+        assertThat(meterRegistry.get("judge0.batch.size").summary().count()).isEqualTo(1);
+    }
+
+    /**
+     * POST answers one token per submission in order; GET echoes each token's stdin as its stdout
+     * and lists the results in reverse, so callers only get their own output if results are
+     * matched by token rather than by position.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        ArrayNode body = objectMapper.createArrayNode();
+        if ("POST".equals(exchange.getRequestMethod())) {
+            JsonNode submissions = objectMapper.readTree(exchange.getRequestBody()).get("submissions");
+            batchSizes.add(submissions.size());
+            for (JsonNode submission : submissions) {
+                String token = "token-" + nextToken.incrementAndGet();
+                stdinByToken.put(token, submission.get("stdin").asText());
+                body.addObject().put("token", token);
+            }
+            respond(exchange, body);
+            return;
+        }
+
+        String query = exchange.getRequestURI().getQuery();
+        String tokens = query.replaceAll(".*tokens=([^&]*).*", "$1");
+        List<String> requested = new ArrayList<>(List.of(tokens.split(",")));
+        Collections.reverse(requested);
+        for (String token : requested) {
+            ObjectNode result = body.addObject();
+            result.put("token", token);
+            result.putObject("status").put("id", 3).put("description", "Accepted");
+            result.put("stdout", stdinByToken.get(token));
+            result.put("time", "0.01");
+            result.put("memory", 1024);
+        }
+        ObjectNode response = objectMapper.createObjectNode();
+        response.set("submissions", body);
+        respond(exchange, response);
+    }
+
+    private void respond(HttpExchange exchange, JsonNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(201, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
@@ -0,0 +1,205 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.CodeExecutionResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT,
+        properties = {
+                "judge0.mode=callback",
+                "judge0.callback.secret=test-callback-secret",
+                "judge0.timeout=5000",
+                "judge0.callback.poll-after-ms=2000",
+                "judge0.callback.poll-interval-ms=100"
+        }
+)
+class Judge0CallbackExecutorTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final HttpClient httpClient = HttpClient.newHttpClient();
+    private static final FakeJudge0 judge0 = new FakeJudge0();
+    private static final int serverPort = freePort();
+
+    @Autowired
+    private CodeExecutor codeExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void judge0Properties(DynamicPropertyRegistry registry) throws IOException {
+        judge0.start();
+        registry.add("judge0.base-url", judge0::baseUrl);
+        registry.add("server.port", () -> serverPort);
+    }
+
+    @AfterAll
+    static void stopJudge0() {
+        judge0.stop();
+    }
+
+    @BeforeEach
+    void resetJudge0() {
+        judge0.sendCallbacks = true;
+        judge0.callbacksSent.set(0);
+    }
+
+    @Test
+    void completesRunFromCallbackAndIgnoresDuplicate() throws InterruptedException {
+        double polledBefore = meterRegistry.counter("judge0.callback.poll-fallback").count();
+
+        CodeExecutionResult result = codeExecutor.execute("console.log('PASS: ok')", "");
+
+        assertThat(codeExecutor).isInstanceOf(Judge0CallbackExecutor.class);
+        assertThat(result.getStatusId()).isEqualTo(3);
+        assertThat(result.getStdout()).isEqualTo("PASS: ok\n");
+
+        waitUntil(() -> judge0.callbacksSent.get() == 2);
+        assertThat(meterRegistry.counter("judge0.callback.stale").count()).isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.counter("judge0.callback.poll-fallback").count()).isEqualTo(polledBefore);
+    }
+
+    @Test
+    void fallsBackToPollingWhenCallbackNeverArrives() {
+        judge0.sendCallbacks = false;
+
+        CodeExecutionResult result = codeExecutor.execute("console.log('PASS: ok')", "");
+
+        assertThat(result.getStatusId()).isEqualTo(3);
+        assertThat(result.getStdout()).isEqualTo("PASS: ok\n");
+        assertThat(judge0.callbacksSent.get()).isZero();
+    }
+
+    @Test
+    void rejectsCallbacksWithAForgedSignature() throws Exception {
+        String forged = "http://localhost:" + serverPort + "/api/internal/judge0/callback/some-run/"
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(new byte[32]);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(forged))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"token\":\"forged\"}"))
+                .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(403);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Minimal stand-in for Judge0: accepts wait=false submissions, answers token lookups and PUTs
+     * every result to the callback URL twice to simulate Judge0 retrying.
+     */
+    private static class FakeJudge0 {
+        private final AtomicInteger tokens = new AtomicInteger();
+        private final AtomicInteger callbacksSent = new AtomicInteger();
+        private volatile boolean sendCallbacks = true;
+        private HttpServer server;
+
+        void start() throws IOException {
+            if (server != null) {
+                return;
+            }
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/submissions", this::handle);
+            server.start();
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        String baseUrl() {
+            return "http://localhost:" + server.getAddress().getPort();
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            if ("POST".equals(exchange.getRequestMethod())) {
+                JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+                String token = "token-" + tokens.incrementAndGet();
+                respond(exchange, "{\"token\":\"" + token + "\"}");
+
+                if (sendCallbacks) {
+                    String callbackUrl = body.path("callback_url").asText();
+                    CompletableFuture.runAsync(() -> {
+                        putCallback(callbackUrl, token);
+                        putCallback(callbackUrl, token);
+                    }, CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+                }
+                return;
+            }
+
+            String token = exchange.getRequestURI().getPath().substring("/submissions/".length());
+            respond(exchange, acceptedResult(token));
+        }
+
+        private void putCallback(String callbackUrl, String token) {
+            try {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(callbackUrl))
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(acceptedResult(token)))
+                        .build();
+                httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                callbacksSent.incrementAndGet();
+            } catch (IOException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private String acceptedResult(String token) {
+            String stdout = Base64.getEncoder().encodeToString("PASS: ok\n".getBytes(StandardCharsets.UTF_8));
+            return """
+                    {"token":"%s","status":{"id":3,"description":"Accepted"},"stdout":"%s","time":"0.012","memory":1024}
+                    """.formatted(token, stdout);
+        }
+
+        private void respond(HttpExchange exchange, String body) throws IOException {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.edi.backend.service;
+
+import com.edi.backend.exception.CodeExecutionException;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class Judge0RoutingExecutorTest {
+
+    private static final double CLOSED = 0;
+    private static final double HALF_OPEN = 1;
+    private static final double OPEN = 2;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<FakeNode> fakeNodes = new ArrayList<>();
+    private Judge0RoutingExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        fakeNodes.forEach(node -> node.server.stop(0));
+    }
+
+    @Test
+    void serverErrorsOpenTheBreakerAndPassingHealthChecksDoNotClearThem() throws IOException {
+        FakeNode node = fakeNode(500);
+        executor = executor(node.url());
+
+        runAndFail();
+        executor.checkHealth();
+        runAndFail();
+        executor.checkHealth();
+        assertThat(breakerState(node)).isEqualTo(CLOSED);
+
+        runAndFail();
+
+        assertThat(breakerState(node)).isEqualTo(OPEN);
+        assertThatThrownBy(() -> executor.execute("console.log(1)", ""))
+                .hasMessage("No healthy Judge0 node available");
+        assertThat(node.submissions.get()).isEqualTo(3);
+    }
+
+    @Test
+    void clientErrorsNeitherCountAgainstTheNodeNorRetry() throws IOException {
+        FakeNode first = fakeNode(400);
+        FakeNode second = fakeNode(400);
+        executor = executor(first.url(), second.url());
+
+        for (int i = 0; i < 4; i++) {
+            runAndFail();
+        }
+
+        assertThat(first.submissions.get() + second.submissions.get()).isEqualTo(4);
+        assertThat(breakerState(first)).isEqualTo(CLOSED);
+        assertThat(breakerState(second)).isEqualTo(CLOSED);
+    }
+
+    @Test
+    void serverErrorsAreRetriedOnAnotherNode() throws IOException {
+        FakeNode failing = fakeNode(500);
+        FakeNode healthy = fakeNode(200);
+        executor = executor(failing.url(), healthy.url());
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(executor.execute("console.log(1)", "").getStdout()).isEqualTo("ok");
+        }
+
+        assertThat(failing.submissions.get()).isBetween(1, 3);
+        assertThat(healthy.submissions.get()).isEqualTo(3);
+    }
+
+    @Test
+    void onlyASuccessfulRunClearsTheFailureCount() throws IOException {
+        FakeNode node = fakeNode(500);
+        executor = executor(node.url());
+
+        runAndFail();
+        runAndFail();
+        node.status = 200;
+        executor.execute("console.log(1)", "");
+        node.status = 500;
+        runAndFail();
+        runAndFail();
+
+        assertThat(breakerState(node)).isEqualTo(CLOSED);
+    }
+
+    @Test
+    void healthCheckAfterCoolDownLetsOneProbeCloseOrReopenTheBreaker() throws IOException {
+        FakeNode node = fakeNode(500);
+        executor = executor(node.url());
+        for (int i = 0; i < 3; i++) {
+            runAndFail();
+        }
+
+        executor.checkHealth();
+        assertThat(breakerState(node)).isEqualTo(HALF_OPEN);
+        runAndFail();
+        assertThat(breakerState(node)).isEqualTo(OPEN);
+
+        executor.checkHealth();
+        node.status = 400;
+        runAndFail();
+        // A rejected probe says nothing about the node, so the next request probes again
+        assertThat(breakerState(node)).isEqualTo(HALF_OPEN);
+        node.status = 200;
+        executor.execute("console.log(1)", "");
+
+        assertThat(breakerState(node)).isEqualTo(CLOSED);
+    }
+
+    @Test
+    void connectionErrorsAndFailedHealthChecksCountAgainstTheNode() throws IOException {
+        String deadUrl = "http://localhost:" + freePort();
+        executor = executor(deadUrl);
+
+        runAndFail();
+        executor.checkHealth();
+        assertThat(breakerState(deadUrl)).isEqualTo(CLOSED);
+
+        executor.checkHealth();
+
+        assertThat(breakerState(deadUrl)).isEqualTo(OPEN);
+    }
+
+    private Judge0RoutingExecutor executor(String... urls) {
+        Judge0ConnectionPool connectionPool = mock(Judge0ConnectionPool.class);
+        when(connectionPool.webClient(anyString())).thenAnswer(invocation -> WebClient.create(invocation.getArgument(0)));
+        Judge0Service judge0Service = new Judge0Service(connectionPool, urls[0], 63, 10_000);
+        // Cool-down of 0 so the next health check half-opens; the scheduled checks never fire
+        return new Judge0RoutingExecutor(judge0Service, connectionPool, meterRegistry, List.of(urls),
+                10_000, 3, 0, 500, 3_600_000, 1000);
+    }
+
+    private void runAndFail() {
+        assertThatThrownBy(() -> executor.execute("console.log(1)", "")).isInstanceOf(CodeExecutionException.class);
+    }
+
+    private double breakerState(FakeNode node) {
+        return breakerState(node.url());
+    }
+
+    private double breakerState(String url) {
+        return meterRegistry.get("judge0.node.breaker").tag("node", url).gauge().value();
+    }
+
+    private FakeNode fakeNode(int status) throws IOException {
+        FakeNode node = new FakeNode(status);
+        fakeNodes.add(node);
+        return node;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static class FakeNode {
+        private static final String ACCEPTED = """
+                {"status":{"id":3,"description":"Accepted"},"stdout":"b2s=","time":"0.01","memory":1024}""";
+
+        private final HttpServer server;
+        private final AtomicInteger submissions = new AtomicInteger();
+        private volatile int status;
+
+        private FakeNode(int initialStatus) throws IOException {
+            this.status = initialStatus;
+            this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/about", exchange -> {
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+            });
+            server.createContext("/submissions", exchange -> {
+                submissions.incrementAndGet();
+                exchange.getRequestBody().readAllBytes();
+                byte[] body = (status == 200 ? ACCEPTED : "{\"error\":\"nope\"}").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.start();
+        }
+
+        private String url() {
+            return "http://localhost:" + server.getAddress().getPort();
+        }
+    }
+}
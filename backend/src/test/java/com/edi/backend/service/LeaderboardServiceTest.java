@@ -0,0 +1,165 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.LeaderboardEntryResponse;
+import com.edi.backend.entity.User;
+import com.edi.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LeaderboardServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final List<UserRepository.UserStanding> users = new ArrayList<>();
+    private LeaderboardService leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findAllStandings()).thenReturn(users);
+        leaderboard = new LeaderboardService(userRepository);
+    }
+
+    @Test
+    void tiedUsersShareARankAndTheNextRankSkipsPastThem() {
+        load(standing(1L, 10), standing(2L, 50), standing(3L, 30), standing(4L, 30), standing(5L, 0));
+
+        assertThat(leaderboard.top(10))
+                .extracting(LeaderboardEntryResponse::getUserId, LeaderboardEntryResponse::getRank)
+                .containsExactly(tuple(2L, 1L), tuple(3L, 2L), tuple(4L, 2L), tuple(1L, 4L), tuple(5L, 5L));
+        assertThat(rankOf(3L)).isEqualTo(2);
+        assertThat(rankOf(4L)).isEqualTo(2);
+        assertThat(rankOf(1L)).isEqualTo(4);
+        assertThat(leaderboard.standingOf("nobody@example.com")).isEmpty();
+    }
+
+    @Test
+    void topStopsAtTheLimitEvenInsideATie() {
+        load(standing(1L, 20), standing(2L, 20), standing(3L, 20), standing(4L, 5));
+
+        assertThat(leaderboard.top(2))
+                .extracting(LeaderboardEntryResponse::getUserId, LeaderboardEntryResponse::getRank)
+                .containsExactly(tuple(1L, 1L), tuple(2L, 1L));
+        assertThat(leaderboard.top(0)).isEmpty();
+    }
+
+    @Test
+    void addXpMovesTheUserAndShiftsTheOthers() {
+        load(standing(1L, 40), standing(2L, 30), standing(3L, 20), standing(4L, 10));
+
+        leaderboard.addXp(4L, 35);
+
+        assertThat(leaderboard.top(4))
+                .extracting(LeaderboardEntryResponse::getUserId, LeaderboardEntryResponse::getXp)
+                .containsExactly(tuple(4L, 45), tuple(1L, 40), tuple(2L, 30), tuple(3L, 20));
+        assertThat(rankOf(4L)).isEqualTo(1);
+        assertThat(rankOf(3L)).isEqualTo(4);
+
+        // Catching up exactly ties with the user ahead
+        leaderboard.addXp(3L, 10);
+
+        assertThat(leaderboard.top(4))
+                .extracting(LeaderboardEntryResponse::getUserId, LeaderboardEntryResponse::getRank)
+                .containsExactly(tuple(4L, 1L), tuple(1L, 2L), tuple(2L, 3L), tuple(3L, 3L));
+        assertThat(leaderboard.size()).isEqualTo(4);
+    }
+
+    @Test
+    void addXpForAnUnknownUserLoadsTheirStoredXp() {
+        load(standing(1L, 40));
+        User late = User.builder().id(9L).username("user9").email("user9@example.com").xp(50).build();
+        when(userRepository.findById(9L)).thenReturn(Optional.of(late));
+
+        leaderboard.addXp(9L, 25);
+
+        // users.xp already includes the award, so it is not added twice
+        assertThat(leaderboard.standingOf("user9@example.com")).get()
+                .extracting(LeaderboardEntryResponse::getXp, LeaderboardEntryResponse::getRank)
+                .containsExactly(50, 1L);
+        assertThat(rankOf(1L)).isEqualTo(2);
+    }
+
+    @Test
+    void newUsersJoinTiedAtZero() {
+        load(standing(1L, 0), standing(2L, 15));
+
+        leaderboard.addUser(User.builder().id(3L).username("user3").email("user3@example.com").xp(0).build());
+
+        assertThat(rankOf(1L)).isEqualTo(2);
+        assertThat(rankOf(3L)).isEqualTo(2);
+        assertThat(leaderboard.size()).isEqualTo(3);
+    }
+
+    @Test
+    void ranksMatchASortedListAfterManyAwards() {
+        Random random = new Random(42);
+        Map<Long, Integer> xp = new HashMap<>();
+        for (long id = 1; id <= 300; id++) {
+            xp.put(id, random.nextInt(20) * 5);
+            users.add(standing(id, xp.get(id)));
+        }
+        leaderboard.rebuild();
+
+        for (int i = 0; i < 2000; i++) {
+            long id = 1 + random.nextInt(300);
+            int award = random.nextInt(4) * 5;
+            xp.merge(id, award, Integer::sum);
+            leaderboard.addXp(id, award);
+        }
+
+        List<Long> expected = xp.keySet().stream()
+                .sorted(Comparator.<Long>comparingInt(xp::get).reversed().thenComparing(Comparator.naturalOrder()))
+                .toList();
+        List<LeaderboardEntryResponse> top = leaderboard.top(300);
+        assertThat(top).extracting(LeaderboardEntryResponse::getUserId).containsExactlyElementsOf(expected);
+        for (LeaderboardEntryResponse entry : top) {
+            long ahead = xp.values().stream().filter(other -> other > entry.getXp()).count();
+            assertThat(entry.getRank()).isEqualTo(ahead + 1);
+            assertThat(rankOf(entry.getUserId())).isEqualTo(entry.getRank());
+        }
+    }
+
+    private void load(UserRepository.UserStanding... standings) {
+        users.addAll(List.of(standings));
+        leaderboard.rebuild();
+    }
+
+    private long rankOf(Long userId) {
+        return leaderboard.standingOf("user" + userId + "@example.com").orElseThrow().getRank();
+    }
+
+    private static UserRepository.UserStanding standing(Long id, Integer xp) {
+        return new UserRepository.UserStanding() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getUsername() {
+                return "user" + id;
+            }
+
+            @Override
+            public String getEmail() {
+                return "user" + id + "@example.com";
+            }
+
+            @Override
+            public Integer getXp() {
+                return xp;
+            }
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.CodeExecutionResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class NodeWorkerPoolExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NodeWorkerPoolExecutor executor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        assumeTrue(nodeAvailable(), "node is not installed");
+        executor = new NodeWorkerPoolExecutor(new ObjectMapper(), meterRegistry, "node", 1, 200, 128, 500, 10000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void asyncWorkRunsInsideTheRun() {
+        CodeExecutionResult result = executor.execute(
+                "(async () => { await null; console.log('later'); })(); console.log('now');", "");
+
+        assertThat(result.getStatusId()).isEqualTo(3);
+        assertThat(result.getStdout()).isEqualTo("now\nlater\n");
+        assertThat(recycled("pending-work")).isZero();
+    }
+
+    @Test
+    void endlessMicrotasksTimeOutTheirOwnRunAndRetireTheWorker() {
+        CodeExecutionResult looping = executor.execute("(async () => { for (;;) await null; })();", "");
+        CodeExecutionResult next = executor.execute("console.log('PASS: ok');", "");
+
+        assertThat(looping.getStatusId()).isEqualTo(5);
+        assertThat(recycled("pending-work")).isEqualTo(1);
+        assertThat(next.getStatusId()).isEqualTo(3);
+        assertThat(next.getStdout()).isEqualTo("PASS: ok\n");
+    }
+
+    @Test
+    void unhandledRejectionFailsTheRunButKeepsTheWorker() {
+        CodeExecutionResult rejected = executor.execute("Promise.reject(new Error('boom'));", "");
+        CodeExecutionResult next = executor.execute("console.log('ok');", "");
+
+        assertThat(rejected.getStatusId()).isEqualTo(11);
+        assertThat(rejected.getStderr()).contains("Uncaught Error: boom");
+        assertThat(next.getStatusId()).isEqualTo(3);
+        assertThat(meterRegistry.find("execution.node-pool.recycled").counters()).isEmpty();
+    }
+
+    @Test
+    void refusesANodeBinaryItCannotRead() {
+        assertThatThrownBy(() -> new NodeWorkerPoolExecutor(new ObjectMapper(), meterRegistry, "true", 1, 200, 128, 500, 10000))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Node.js version");
+    }
+
+    private double recycled(String reason) {
+        return meterRegistry.counter("execution.node-pool.recycled", "reason", reason).count();
+    }
+
+    private static boolean nodeAvailable() {
+        try {
+            return new ProcessBuilder("node", "--version").start().waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
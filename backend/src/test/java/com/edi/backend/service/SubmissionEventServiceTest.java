@@ -0,0 +1,152 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.SubmissionResponse;
+import com.edi.backend.dto.TestResultResponse;
+import com.edi.backend.entity.SubmissionStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class SubmissionEventServiceTest {
+
+    private static final Pattern EVENT = Pattern.compile("id:(\\d+)\\nevent:(\\w+)\\n");
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EventsController controller;
+
+    @Test
+    void reconnectWithLastEventIdReplaysOnlyMissedEvents() throws Exception {
+        SubmissionEventService events = new SubmissionEventService(meterRegistry, 60_000, 60_000, 60_000);
+        MockMvc mockMvc = mockMvc(events);
+        events.publishQueued(1L);
+        events.publishRunning(1L);
+
+        MvcResult resumed = mockMvc.perform(get("/events/1").header("Last-Event-ID", "1")).andReturn();
+        assertThat(received(resumed)).containsExactly("2 running");
+
+        events.publishResult(verdict(1L));
+
+        resumed.getAsyncResult(1000);
+        assertThat(received(resumed)).containsExactly("2 running", "3 test", "4 test", "5 verdict");
+
+        // The finished stream is kept for retention-ms, so a late reconnect still replays from its id
+        MvcResult late = mockMvc.perform(get("/events/1").header("Last-Event-ID", "3")).andReturn();
+        late.getAsyncResult(1000);
+        assertThat(received(late)).containsExactly("4 test", "5 verdict");
+    }
+
+    @Test
+    void unparseableLastEventIdReplaysEverything() throws Exception {
+        SubmissionEventService events = new SubmissionEventService(meterRegistry, 60_000, 60_000, 60_000);
+        MockMvc mockMvc = mockMvc(events);
+        events.publishQueued(1L);
+
+        MvcResult result = mockMvc.perform(get("/events/1").header("Last-Event-ID", "not-a-number")).andReturn();
+
+        assertThat(received(result)).containsExactly("1 queued");
+    }
+
+    @Test
+    void idleStreamsAreClosedAndDropped() throws Exception {
+        SubmissionEventService events = new SubmissionEventService(meterRegistry, 60_000, 60_000, 10);
+        MockMvc mockMvc = mockMvc(events);
+        events.publishQueued(1L);
+        MvcResult subscribed = mockMvc.perform(get("/events/1")).andReturn();
+        assertThat(gauge("submission.events.subscribers")).isEqualTo(1);
+
+        Thread.sleep(50);
+        events.dropFinishedStreams();
+
+        subscribed.getAsyncResult(1000);
+        assertThat(received(subscribed)).containsExactly("1 queued");
+        assertThat(gauge("submission.events.streams")).isZero();
+        assertThat(gauge("submission.events.subscribers")).isZero();
+    }
+
+    @Test
+    void streamsWithRecentEventsAreNotIdle() throws Exception {
+        SubmissionEventService events = new SubmissionEventService(meterRegistry, 60_000, 60_000, 60_000);
+        MockMvc mockMvc = mockMvc(events);
+        events.publishQueued(1L);
+        mockMvc.perform(get("/events/1")).andReturn();
+
+        events.dropFinishedStreams();
+
+        assertThat(gauge("submission.events.streams")).isEqualTo(1);
+        assertThat(gauge("submission.events.subscribers")).isEqualTo(1);
+    }
+
+    @Test
+    void finishedStreamsPastRetentionFallBackToTheStoredVerdict() throws Exception {
+        SubmissionEventService events = new SubmissionEventService(meterRegistry, 60_000, 0, 60_000);
+        MockMvc mockMvc = mockMvc(events);
+        events.publishQueued(1L);
+        events.publishResult(verdict(1L));
+
+        Thread.sleep(5);
+        events.dropFinishedStreams();
+
+        assertThat(gauge("submission.events.streams")).isZero();
+        controller.status = SubmissionStatus.WRONG_ANSWER;
+        MvcResult result = mockMvc.perform(get("/events/1").header("Last-Event-ID", "2")).andReturn();
+        result.getAsyncResult(1000);
+        assertThat(received(result)).containsExactly("1 verdict");
+    }
+
+    private MockMvc mockMvc(SubmissionEventService events) {
+        controller = new EventsController(events);
+        return MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private static List<String> received(MvcResult result) throws Exception {
+        Matcher matcher = EVENT.matcher(result.getResponse().getContentAsString());
+        return matcher.results().map(match -> match.group(1) + " " + match.group(2)).toList();
+    }
+
+    private static SubmissionResponse verdict(Long id) {
+        return SubmissionResponse.builder()
+                .id(id)
+                .status(SubmissionStatus.WRONG_ANSWER)
+                .testResults(List.of(
+                        TestResultResponse.builder().name("adds").passed(true).build(),
+                        TestResultResponse.builder().name("subtracts").passed(false).build()))
+                .build();
+    }
+
+    /**
+     * Stands in for SubmissionController so the test needs no security context or repositories.
+     */
+    @RestController
+    private static class EventsController {
+        private final SubmissionEventService events;
+        private SubmissionStatus status = SubmissionStatus.PENDING;
+
+        private EventsController(SubmissionEventService events) {
+            this.events = events;
+        }
+
+        @GetMapping("/events/{id}")
+        SseEmitter events(@PathVariable Long id, @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+            return events.subscribe(SubmissionResponse.builder().id(id).status(status).build(), lastEventId);
+        }
+    }
+}
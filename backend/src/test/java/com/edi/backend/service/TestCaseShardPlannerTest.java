@@ -0,0 +1,86 @@
+package com.edi.backend.service;
+
+import com.edi.backend.dto.CodeExecutionResult;
+import com.edi.backend.entity.Difficulty;
+import com.edi.backend.repository.TestCaseFailureStatRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class TestCaseShardPlannerTest {
+
+    private final TestCaseShardPlanner planner = new TestCaseShardPlanner(new ObjectMapper(),
+            new FailFastTestPlanner(mock(TestCaseFailureStatRepository.class), false), List.of(Difficulty.HARD), 4, 5, 4);
+
+    @AfterEach
+    void tearDown() {
+        planner.shutdown();
+    }
+
+    @Test
+    void stdoutIsJoinedLineByLineInShardOrder() {
+        CodeExecutionResult merged = merge(
+                accepted("PASS #0 adds\nPASS #4 carries\n"),
+                accepted("PASS #1 subtracts"),
+                accepted(null),
+                accepted("PASS #3 divides\n"));
+
+        assertThat(merged.getStdout()).isEqualTo("PASS #0 adds\nPASS #4 carries\nPASS #1 subtracts\nPASS #3 divides");
+        assertThat(merged.getStdout().lines()).hasSize(4);
+    }
+
+    @Test
+    void compileErrorOutranksTimeLimitWhichOutranksOtherFailures() {
+        CodeExecutionResult compileError = result(6, null, "SyntaxError: Unexpected token");
+
+        CodeExecutionResult merged = merge(accepted("PASS #0 a\n"), result(11, "FAIL #1 b\n", null),
+                result(5, null, null), compileError);
+
+        assertThat(merged.getStatusId()).isEqualTo(6);
+        assertThat(merged.getCompileOutput()).isEqualTo("SyntaxError: Unexpected token");
+        assertThat(merge(accepted("PASS #0 a\n"), result(11, "FAIL #1 b\n", null), result(5, null, null)).getStatusId())
+                .isEqualTo(5);
+        assertThat(merge(accepted("PASS #0 a\n"), result(11, "FAIL #1 b\n", null), accepted("PASS #2 c\n")).getStatusId())
+                .isEqualTo(11);
+        assertThat(merge(accepted("PASS #0 a\n"), accepted("PASS #1 b\n")).getStatusId()).isEqualTo(3);
+    }
+
+    @Test
+    void timeAndMemoryAreTheSlowestShard() {
+        CodeExecutionResult first = CodeExecutionResult.builder().statusId(3).time("0.120").memory(2048).build();
+        CodeExecutionResult second = CodeExecutionResult.builder().statusId(3).time("0.095").memory(4096).build();
+
+        CodeExecutionResult merged = merge(first, second);
+
+        assertThat(merged.getTime()).isEqualTo("0.120");
+        assertThat(merged.getMemory()).isEqualTo(4096);
+    }
+
+    @Test
+    void singleShardIsReturnedUnchanged() {
+        CodeExecutionResult only = accepted("PASS #0 a\n");
+
+        assertThat(merge(only)).isSameAs(only);
+    }
+
+    private CodeExecutionResult merge(CodeExecutionResult... results) {
+        List<String> programs = IntStream.range(0, results.length).mapToObj(String::valueOf).toList();
+        return planner.runShards(programs,
+                program -> CompletableFuture.completedFuture(results[Integer.parseInt(program)])).join();
+    }
+
+    private static CodeExecutionResult accepted(String stdout) {
+        return result(3, stdout, null);
+    }
+
+    private static CodeExecutionResult result(int statusId, String stdout, String compileOutput) {
+        return CodeExecutionResult.builder().statusId(statusId).stdout(stdout).compileOutput(compileOutput).build();
+    }
+}
@@ -0,0 +1,163 @@
+package com.edi.backend.service;
+
+import com.edi.backend.service.TokenBucketRateLimiter.Decision;
+import com.edi.backend.service.TokenBucketRateLimiter.Endpoint;
+import com.edi.backend.service.TokenBucketRateLimiter.Limit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long SECONDS = 1_000_000_000L;
+    private static final long IDLE_EVICTION_MS = 600_000;
+
+    private final AtomicLong now = new AtomicLong();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(meterRegistry, true, IDLE_EVICTION_MS,
+            Map.of(Endpoint.SUBMISSIONS, new Limit(3, 6),
+                    Endpoint.SAMPLES, new Limit(5, 5),
+                    Endpoint.CHALLENGES, new Limit(1, 0)),
+            Map.of(Endpoint.SUBMISSIONS, new Limit(10, 60),
+                    Endpoint.SAMPLES, new Limit(20, 20),
+                    Endpoint.CHALLENGES, new Limit(5, 1)),
+            now::get);
+
+    @Test
+    void takesUpToCapacityThenRejectsWithoutSpendingTokens() {
+        assertThat(take("alice")).isEqualTo(new Decision(true, 3, 2, 0));
+        assertThat(take("alice")).isEqualTo(new Decision(true, 3, 1, 0));
+        assertThat(take("alice")).isEqualTo(new Decision(true, 3, 0, 0));
+
+        // 6 per minute: one token every 10 s
+        assertThat(take("alice")).isEqualTo(new Decision(false, 3, 0, 10));
+        now.addAndGet(4 * SECONDS);
+        assertThat(take("alice")).isEqualTo(new Decision(false, 3, 0, 6));
+        now.addAndGet(6 * SECONDS);
+        assertThat(take("alice")).isEqualTo(new Decision(true, 3, 0, 0));
+
+        assertThat(meterRegistry.get("rate-limit.rejected")
+                .tags("endpoint", "submissions", "role", "USER").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void refillKeepsFractionsAndStopsAtCapacity() {
+        drain("alice", 3);
+
+        now.addAndGet(15 * SECONDS);
+        assertThat(take("alice").allowed()).isTrue();
+        // The half token left over from the 15 s counts towards the next one
+        now.addAndGet(5 * SECONDS);
+        assertThat(take("alice").allowed()).isTrue();
+        assertThat(take("alice").allowed()).isFalse();
+
+        now.addAndGet(3600 * SECONDS);
+        assertThat(take("alice").remaining()).isEqualTo(2);
+    }
+
+    @Test
+    void limitsDependOnRoleEndpointAndPrincipal() {
+        assertThat(take("alice").limit()).isEqualTo(3);
+        assertThat(limiter.tryConsume("root", true, Endpoint.SUBMISSIONS).limit()).isEqualTo(10);
+        assertThat(limiter.tryConsume("alice", false, Endpoint.SAMPLES).limit()).isEqualTo(5);
+
+        drain("alice", 2);
+        assertThat(take("alice").allowed()).isFalse();
+        assertThat(take("bob").allowed()).isTrue();
+        assertThat(limiter.tryConsume("alice", false, Endpoint.SAMPLES).allowed()).isTrue();
+        assertThat(meterRegistry.get("rate-limit.rejected")
+                .tags("endpoint", "submissions", "role", "USER").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void promotedUserGetsTheAdminLimitOnTheNextRequest() {
+        drain("alice", 3);
+        assertThat(take("alice").allowed()).isFalse();
+
+        // Same bucket, larger capacity: the refill since the last take is measured against the new limit
+        now.addAndGet(5 * SECONDS);
+        Decision admin = limiter.tryConsume("alice", true, Endpoint.SUBMISSIONS);
+
+        assertThat(admin.allowed()).isTrue();
+        assertThat(admin.limit()).isEqualTo(10);
+        assertThat(admin.remaining()).isEqualTo(4);
+    }
+
+    @Test
+    void bucketsWithoutRefillAskForAMinute() {
+        assertThat(limiter.tryConsume("alice", false, Endpoint.CHALLENGES).allowed()).isTrue();
+
+        Decision rejected = limiter.tryConsume("alice", false, Endpoint.CHALLENGES);
+
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfterSeconds()).isEqualTo(60);
+    }
+
+    @Test
+    void idleBucketsAreEvicted() {
+        // Challenges for users never refill, so only eviction gives the token back
+        assertThat(limiter.tryConsume("alice", false, Endpoint.CHALLENGES).allowed()).isTrue();
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(IDLE_EVICTION_MS));
+        limiter.evictIdleBuckets();
+        assertThat(limiter.tryConsume("alice", false, Endpoint.CHALLENGES).allowed()).isFalse();
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(IDLE_EVICTION_MS) + 1);
+        limiter.evictIdleBuckets();
+        assertThat(limiter.tryConsume("alice", false, Endpoint.CHALLENGES).allowed()).isTrue();
+    }
+
+    @Test
+    void concurrentTakesNeverOverspendTheBucket() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+        List<CompletableFuture<Void>> takes = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                takes.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    for (int j = 0; j < 100; j++) {
+                        if (limiter.tryConsume("root", true, Endpoint.SAMPLES).allowed()) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                }, pool));
+            }
+            start.countDown();
+            CompletableFuture.allOf(takes.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(allowed.get()).isEqualTo(20);
+    }
+
+    private Decision take(String principal) {
+        return limiter.tryConsume(principal, false, Endpoint.SUBMISSIONS);
+    }
+
+    private void drain(String principal, int tokens) {
+        for (int i = 0; i < tokens; i++) {
+            assertThat(take(principal).allowed()).isTrue();
+        }
+    }
+}
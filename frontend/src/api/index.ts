@@ -10,8 +10,9 @@ export type { OpenAPIConfig } from './core/OpenAPI';
 export type { AuthResponse } from './models/AuthResponse';
 export { ChallengeRequest } from './models/ChallengeRequest';
 export { ChallengeResponse } from './models/ChallengeResponse';
+export { ChallengeSummaryResponse } from './models/ChallengeSummaryResponse';
 export type { LoginRequest } from './models/LoginRequest';
-export type { PageResponseChallengeResponse } from './models/PageResponseChallengeResponse';
+export type { PageResponseChallengeSummaryResponse } from './models/PageResponseChallengeSummaryResponse';
 export type { RegisterRequest } from './models/RegisterRequest';
 export type { SubmissionRequest } from './models/SubmissionRequest';
 export { SubmissionResponse } from './models/SubmissionResponse';
@@ -2,9 +2,9 @@
 /* istanbul ignore file */
 /* tslint:disable */
 /* eslint-disable */
-import type { ChallengeResponse } from './ChallengeResponse';
-export type PageResponseChallengeResponse = {
-    content?: Array<ChallengeResponse>;
+import type { ChallengeSummaryResponse } from './ChallengeSummaryResponse';
+export type PageResponseChallengeSummaryResponse = {
+    content?: Array<ChallengeSummaryResponse>;
     page?: number;
     size?: number;
     totalElements?: number;
@@ -4,7 +4,7 @@
 /* eslint-disable */
 import type { ChallengeRequest } from '../models/ChallengeRequest';
 import type { ChallengeResponse } from '../models/ChallengeResponse';
-import type { PageResponseChallengeResponse } from '../models/PageResponseChallengeResponse';
+import type { PageResponseChallengeSummaryResponse } from '../models/PageResponseChallengeSummaryResponse';
 import type { CancelablePromise } from '../core/CancelablePromise';
 import { OpenAPI } from '../core/OpenAPI';
 import { request as __request } from '../core/request';
@@ -15,14 +15,14 @@ export class ChallengesService {
      * @param page
      * @param size
      * @param sortBy
-     * @returns PageResponseChallengeResponse OK
+     * @returns PageResponseChallengeSummaryResponse OK
      * @throws ApiError
      */
     public static getAllChallenges(
         page?: number,
         size: number = 100,
         sortBy: string = 'createdAt',
-    ): CancelablePromise<PageResponseChallengeResponse> {
+    ): CancelablePromise<PageResponseChallengeSummaryResponse> {
         return __request(OpenAPI, {
             method: 'GET',
             url: '/api/challenges',
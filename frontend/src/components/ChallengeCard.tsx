@@ -1,7 +1,7 @@
-import { ChallengeResponse } from '../api';
+import { ChallengeSummaryResponse } from '../api';
 
 interface ChallengeCardProps {
-  challenge: ChallengeResponse;
+  challenge: ChallengeSummaryResponse;
   onClick?: () => void;
   isAccepted?: boolean;
   isAdmin?: boolean;
@@ -71,7 +71,7 @@ export function ChallengeCard({ challenge, onClick, isAccepted, isAdmin, onDelet
 
       {/* Description Preview */}
       <p className="text-sm text-gray-600 dark:text-gray-400 line-clamp-3 mb-4">
-        {challenge.description?.replace(/[#*`]/g, '').substring(0, 150)}...
+        {challenge.descriptionPreview?.replace(/[#*`]/g, '').substring(0, 150)}...
       </p>
 
       {/* Tags */}
@@ -1,5 +1,5 @@
 import { useEffect, useState } from 'react';
-import { ChallengesService, ChallengeResponse } from '../api';
+import { ChallengesService, ChallengeSummaryResponse } from '../api';
 import { ChallengeCard } from '../components/ChallengeCard';
 import { GenerateChallengeForm } from '../components/GenerateChallengeForm';
 import { AuthForm } from '../components/AuthForm';
@@ -12,7 +12,7 @@ interface ChallengeListProps {
 }
 
 export function ChallengeList({ auth, onLogout, onAuthSuccess, onChallengeClick }: ChallengeListProps) {
-  const [challenges, setChallenges] = useState<ChallengeResponse[]>([]);
+  const [challenges, setChallenges] = useState<ChallengeSummaryResponse[]>([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
 